@@ -0,0 +1,124 @@
+package org.example.pdftool.benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generated PDFs to benchmark against, written once to a temp directory and reused
+ * by later runs. "text" pages are dense lines of words; "image" pages are a single
+ * full-page JPEG, like a scanned archive.
+ *
+ * In text fixtures "the" appears on every line (hit-dense search) and "zebra" only
+ * once, on the last page (hit-sparse search).
+ */
+public final class Fixtures {
+    public static final String DENSE_TERM = "the";
+    public static final String SPARSE_TERM = "zebra";
+
+    private static final int LINES_PER_PAGE = 45;
+    private static final String[] WORDS = {
+            "the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "report", "annual",
+            "figure", "table", "section", "result", "method", "value", "order", "system", "page", "index"
+    };
+
+    private Fixtures() {
+    }
+
+    public static File get(String kind, int pages) throws IOException {
+        File directory = new File(System.getProperty("java.io.tmpdir"), "pdftool-bench");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File file = new File(directory, kind + "-" + pages + ".pdf");
+        if (file.isFile()) return file;
+
+        File tmp = new File(directory, file.getName() + ".tmp");
+        switch (kind) {
+            case "text" -> writeText(tmp, pages);
+            case "image" -> writeImages(tmp, pages);
+            default -> throw new IllegalArgumentException("Unknown fixture kind: " + kind);
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not move " + tmp + " to " + file);
+        }
+        return file;
+    }
+
+    private static void writeText(File file, int pages) throws IOException {
+        Random random = new Random(pages);
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument()) {
+            for (int pageIndex = 0; pageIndex < pages; pageIndex++) {
+                PDPage page = new PDPage(PDRectangle.LETTER);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 11);
+                    content.setLeading(15);
+                    content.newLineAtOffset(54, 740);
+                    for (int line = 0; line < LINES_PER_PAGE; line++) {
+                        StringBuilder text = new StringBuilder(DENSE_TERM);
+                        for (int word = 0; word < 11; word++) {
+                            text.append(' ').append(WORDS[1 + random.nextInt(WORDS.length - 1)]);
+                        }
+                        if (pageIndex == pages - 1 && line == LINES_PER_PAGE / 2) {
+                            text.append(' ').append(SPARSE_TERM);
+                        }
+                        content.showText(text.toString());
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+    }
+
+    private static void writeImages(File file, int pages) throws IOException {
+        Random random = new Random(pages);
+        try (PDDocument document = new PDDocument()) {
+            for (int pageIndex = 0; pageIndex < pages; pageIndex++) {
+                PDPage page = new PDPage(PDRectangle.LETTER);
+                document.addPage(page);
+                PDImageXObject scan = JPEGFactory.createFromImage(document, scan(pageIndex, random), 0.6f);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    PDRectangle box = page.getMediaBox();
+                    content.drawImage(scan, 0, 0, box.getWidth(), box.getHeight());
+                }
+            }
+            document.save(file);
+        }
+    }
+
+    // A distinct, noisy "scanned" page, so every page really has its own image to decode
+    private static BufferedImage scan(int pageIndex, Random random) {
+        BufferedImage image = new BufferedImage(425, 550, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(new Color(245, 242, 232));
+        g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g2d.setColor(Color.DARK_GRAY);
+        g2d.setFont(new Font(Font.SERIF, Font.PLAIN, 9));
+        for (int line = 0; line < 50; line++) {
+            g2d.drawString("Scanned page " + (pageIndex + 1) + " line " + line + " " + random.nextLong(), 25, 30 + line * 10);
+        }
+        g2d.dispose();
+        for (int speck = 0; speck < 2000; speck++) {
+            image.setRGB(random.nextInt(image.getWidth()), random.nextInt(image.getHeight()), 0x808080);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.pdftool.benchmarks;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.WritableImage;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.example.pdftool.render.FxImagePool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What it costs to get a rendered page into a JavaFX image, excluding the render
+ * itself: the SwingFXUtils copy the view used to make, against preparing a
+ * recycled FxImagePool buffer that PDFBox draws into directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageConversionBenchmark {
+    @Param({"72", "150", "300"})
+    public float dpi;
+
+    private final FxImagePool pool = new FxImagePool(256L * 1024 * 1024);
+    private BufferedImage rendered;
+
+    @Setup
+    public void setup() throws IOException {
+        try (PDDocument document = Loader.loadPDF(Fixtures.get("text", 1))) {
+            rendered = new PDFRenderer(document).renderImageWithDPI(0, dpi);
+        }
+    }
+
+    @Benchmark
+    public WritableImage swingFxUtilsToFxImage() {
+        return SwingFXUtils.toFXImage(rendered, null);
+    }
+
+    @Benchmark
+    public WritableImage pooledBuffer() throws IOException {
+        WritableImage image = pool.draw(rendered.getWidth(), rendered.getHeight(), g2d -> {
+        });
+        pool.release(image);
+        return image;
+    }
+}
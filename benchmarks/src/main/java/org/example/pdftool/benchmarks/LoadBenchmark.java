@@ -0,0 +1,56 @@
+package org.example.pdftool.benchmarks;
+
+import org.example.pdftool.controller.PDFController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening a document through PDFController, then reading its page count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"text", "image"})
+    public String kind;
+
+    @Param({"1", "100", "5000"})
+    public int pages;
+
+    private File fixture;
+    private PDFController controller;
+
+    @Setup
+    public void setup() throws IOException {
+        fixture = Fixtures.get(kind, pages);
+        controller = new PDFController();
+    }
+
+    @Benchmark
+    public int loadPDFDocument() throws IOException {
+        controller.loadPDFDocument(fixture);
+        return controller.getPageCount();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        controller.closeDocument();
+    }
+}
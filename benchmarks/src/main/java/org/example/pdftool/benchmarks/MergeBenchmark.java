@@ -0,0 +1,93 @@
+package org.example.pdftool.benchmarks;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.controller.ProgressListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFController.mergeFiles over two text fixtures of different lengths, whose
+ * object numbers overlap.
+ *
+ * Setup merges them once and reads every page's text back: a merge that puts
+ * one source's content on another's pages fails the run instead of being timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MergeBenchmark {
+    @Param({"100", "1000"})
+    public int pages;
+
+    private List<File> sources;
+    private File target;
+    private PDFController controller;
+
+    @Setup
+    public void setup() throws Exception {
+        sources = List.of(Fixtures.get("text", pages), Fixtures.get("text", pages / 2));
+        target = File.createTempFile("merge-", ".pdf");
+        controller = new PDFController();
+
+        mergeFiles();
+        List<String> expected = new ArrayList<>();
+        for (File source : sources) {
+            expected.addAll(pageTexts(source));
+        }
+        List<String> merged = pageTexts(target);
+        if (merged.size() != expected.size()) {
+            throw new IllegalStateException("Merged " + merged.size() + " pages, expected " + expected.size());
+        }
+        for (int pageIndex = 0; pageIndex < merged.size(); pageIndex++) {
+            if (!merged.get(pageIndex).equals(expected.get(pageIndex))) {
+                throw new IllegalStateException("Merged page " + (pageIndex + 1) + " has the wrong text");
+            }
+        }
+    }
+
+    private static List<String> pageTexts(File file) throws IOException {
+        List<String> texts = new ArrayList<>();
+        try (PDDocument document = Loader.loadPDF(file)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int pageNum = 1; pageNum <= document.getNumberOfPages(); pageNum++) {
+                stripper.setStartPage(pageNum);
+                stripper.setEndPage(pageNum);
+                texts.add(stripper.getText(document));
+            }
+        }
+        return texts;
+    }
+
+    @Benchmark
+    public long mergeFiles() throws Exception {
+        controller.mergeFiles(sources, target, ProgressListener.NONE).getCompletion().get();
+        return target.length();
+    }
+
+    @TearDown
+    public void tearDown() {
+        target.delete();
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.pdftool.benchmarks;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.example.pdftool.render.RenderProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFRenderer.renderImageWithDPI at the DPIs the viewer asks for, from the preview
+ * DPI up to a high zoom, in each RenderProfile. Pages are visited in turn so
+ * caching one page can't help.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+    @Param({"text", "image"})
+    public String kind;
+
+    @Param({"36", "72", "150", "300"})
+    public float dpi;
+
+    @Param({"fast", "quality"})
+    public String profile;
+
+    private PDDocument document;
+    private PDFRenderer renderer;
+    private int pageCount;
+    private int nextPage = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        document = Loader.loadPDF(Fixtures.get(kind, 100));
+        renderer = new PDFRenderer(document);
+        RenderProfile.named(profile).apply(renderer);
+        pageCount = document.getNumberOfPages();
+    }
+
+    @Benchmark
+    public BufferedImage renderImageWithDPI() throws IOException {
+        int pageIndex = nextPage;
+        nextPage = (nextPage + 1) % pageCount;
+        return renderer.renderImageWithDPI(pageIndex, dpi);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        document.close();
+    }
+}
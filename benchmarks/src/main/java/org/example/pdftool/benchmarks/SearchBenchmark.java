@@ -0,0 +1,65 @@
+package org.example.pdftool.benchmarks;
+
+import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.controller.ProgressListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFController.searchText over text fixtures, for a term on every line ("dense")
+ * and one that occurs once ("sparse"), both by extracting pages as they are
+ * searched and from a prebuilt text index.
+ *
+ * Large documents take seconds per search, so each iteration is a single search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"1", "100", "5000"})
+    public int pages;
+
+    @Param({"dense", "sparse"})
+    public String hits;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private PDFController controller;
+    private String term;
+
+    @Setup
+    public void setup() throws Exception {
+        controller = new PDFController();
+        controller.loadPDFDocument(Fixtures.get("text", pages));
+        term = hits.equals("dense") ? Fixtures.DENSE_TERM : Fixtures.SPARSE_TERM;
+        if (indexed) {
+            controller.buildTextIndex(ProgressListener.NONE).get();
+        }
+    }
+
+    @Benchmark
+    public int searchText() throws Exception {
+        return controller.searchText(term).size();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        controller.closeDocument();
+    }
+}
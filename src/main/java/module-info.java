@@ -4,8 +4,11 @@ module org.example.pdftool {
     requires org.apache.pdfbox;
     requires javafx.swing;
     requires java.logging;
+    requires java.management;
+    requires jdk.jfr;
 
 
     opens org.example.pdftool to javafx.fxml;
     exports org.example.pdftool;
+    exports org.example.pdftool.metrics;
 }
\ No newline at end of file
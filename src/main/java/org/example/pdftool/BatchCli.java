@@ -0,0 +1,250 @@
+package org.example.pdftool;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.example.pdftool.controller.DocumentLoadPolicy;
+import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.controller.PageRanges;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch mode: renders pages to PNG and/or searches every PDF in the given
+ * files and directories, several documents at a time. Nothing here touches JavaFX.
+ *
+ * Each document is handled start to finish by one worker thread, one page at a
+ * time, and only a couple of documents per worker are queued, so memory stays
+ * bounded however many files there are. Every document produces one line of JSON.
+ */
+public class BatchCli {
+    private static final String USAGE = """
+            Usage: org.example.pdftool.Launcher --batch [options] <file or directory>...
+              --render <dir>     render pages to <dir>/<document>/page-N.png
+              --dpi <n>          render resolution (default 150)
+              --pages <ranges>   pages to process, e.g. 1-5,9 (default all)
+              --search <term>    list every hit for term
+              --out <file>       write JSON lines to file (default stdout)
+              --threads <n>      documents processed at once (default: number of cores)
+            """;
+
+    // pageRanges holds 1-based {first, last} pairs, or is null for every page
+    private record Options(List<Path> inputs, Path renderDirectory, float dpi, List<int[]> pageRanges,
+                           String searchTerm, Path output, int threads) {
+    }
+
+    private final Options options;
+    private final DocumentLoadPolicy loadPolicy = DocumentLoadPolicy.fromSystemProperties();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private BatchCli(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            System.exit(new BatchCli(options).run());
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static Options parse(String[] args) {
+        List<Path> inputs = new ArrayList<>();
+        Path renderDirectory = null;
+        float dpi = 150;
+        List<int[]> pageRanges = null;
+        String searchTerm = null;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                inputs.add(Path.of(arg));
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            try {
+                switch (arg) {
+                    case "--render" -> renderDirectory = Path.of(value);
+                    case "--dpi" -> dpi = Float.parseFloat(value);
+                    case "--pages" -> pageRanges = PageRanges.parse(value);
+                    case "--search" -> searchTerm = value;
+                    case "--out" -> output = Path.of(value);
+                    case "--threads" -> threads = Math.max(1, Integer.parseInt(value));
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number for " + arg + ": " + value);
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("No files or directories given");
+        }
+        if (renderDirectory == null && searchTerm == null) {
+            throw new IllegalArgumentException("Nothing to do: give --render and/or --search");
+        }
+        return new Options(inputs, renderDirectory, dpi, pageRanges, searchTerm, output, threads);
+    }
+
+    private int run() throws IOException, InterruptedException {
+        PrintStream out = options.output() == null
+                ? System.out
+                : new PrintStream(new FileOutputStream(options.output().toFile()), false, StandardCharsets.UTF_8);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads(), runnable -> {
+            Thread thread = new Thread(runnable, "pdf-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Directories are walked lazily; this keeps the backlog of queued documents small
+        Semaphore queued = new Semaphore(options.threads() * 2);
+        long started = System.nanoTime();
+
+        for (Path input : options.inputs()) {
+            try (Stream<Path> files = Files.walk(input)) {
+                Iterator<Path> iterator = files
+                        .filter(Files::isRegularFile)
+                        .filter(path -> path.getFileName().toString().toLowerCase().endsWith(".pdf"))
+                        .iterator();
+                while (iterator.hasNext()) {
+                    Path file = iterator.next();
+                    Path name = Files.isDirectory(input) ? input.relativize(file) : file.getFileName();
+                    queued.acquire();
+                    workers.execute(() -> {
+                        try {
+                            String json = process(file, name);
+                            synchronized (out) {
+                                out.println(json);
+                            }
+                        } finally {
+                            queued.release();
+                        }
+                    });
+                }
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Could not read " + input + ": " + e.getMessage());
+                failed.incrementAndGet();
+            }
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        out.flush();
+        if (out != System.out) {
+            out.close();
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("Processed %d documents (%d failed) in %.1f s%n", processed.get(), failed.get(), seconds);
+        return failed.get() == 0 ? 0 : 1;
+    }
+
+    // One document, start to finish, on a worker thread
+    private String process(Path file, Path name) {
+        StringBuilder json = new StringBuilder("{\"file\":").append(quote(file.toString()));
+        try (PDDocument document = loadPolicy.load(file.toFile())) {
+            int pageCount = document.getNumberOfPages();
+            List<Integer> pages = PageRanges.select(options.pageRanges(), pageCount);
+            json.append(",\"pages\":").append(pageCount);
+
+            if (options.renderDirectory() != null) {
+                String baseName = name.toString().replaceFirst("(?i)\\.pdf$", "");
+                Path target = options.renderDirectory().resolve(baseName);
+                Files.createDirectories(target);
+                PDFRenderer renderer = new PDFRenderer(document);
+                for (int pageIndex : pages) {
+                    BufferedImage image = renderer.renderImageWithDPI(pageIndex, options.dpi(), ImageType.RGB);
+                    ImageIO.write(image, "png", target.resolve("page-" + (pageIndex + 1) + ".png").toFile());
+                }
+                json.append(",\"rendered\":").append(pages.size());
+            }
+
+            if (options.searchTerm() != null) {
+                StringBuilder hits = new StringBuilder();
+                for (int pageIndex : pages) {
+                    for (PDFController.PDFSearchResult result : PDFController.searchPage(document, options.searchTerm(), pageIndex)) {
+                        if (!hits.isEmpty()) hits.append(',');
+                        appendHit(hits, result);
+                    }
+                }
+                json.append(",\"hits\":[").append(hits).append(']');
+            }
+            processed.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            json.append(",\"error\":").append(quote(String.valueOf(e.getMessage())));
+        }
+        return json.append('}').toString();
+    }
+
+    // Page numbers are 1-based in JSON; boxes are in PDF points from the top left, as used for highlighting
+    private static void appendHit(StringBuilder json, PDFController.PDFSearchResult result) {
+        PDRectangle box = result.position();
+        json.append("{\"page\":").append(result.pageNumber() + 1)
+                .append(",\"text\":").append(quote(result.text()))
+                .append(",\"x\":").append(box.getLowerLeftX())
+                .append(",\"y\":").append(box.getLowerLeftY())
+                .append(",\"width\":").append(box.getWidth())
+                .append(",\"height\":").append(box.getHeight())
+                .append('}');
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
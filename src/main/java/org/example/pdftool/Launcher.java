@@ -0,0 +1,23 @@
+package org.example.pdftool;
+
+import javafx.application.Application;
+
+import java.util.Arrays;
+
+/**
+ * The application's entry point. It doesn't extend Application, so the JavaFX
+ * launcher doesn't start the toolkit before main runs: --batch goes straight to
+ * the headless BatchCli, and anything else opens the viewer.
+ */
+public final class Launcher {
+    private Launcher() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchCli.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        Application.launch(PDFToolApp.class, args);
+    }
+}
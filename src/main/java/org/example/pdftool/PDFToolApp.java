@@ -6,44 +6,127 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextInputControl;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
 import javafx.scene.text.Font;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import org.example.pdftool.controller.ExportTask;
+import org.example.pdftool.controller.MergeTask;
 import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.controller.PageRanges;
+import org.example.pdftool.controller.ProgressListener;
+import org.example.pdftool.controller.SaveTask;
+import org.example.pdftool.metrics.PerformanceMetrics;
+import org.example.pdftool.render.PageImageCache;
+import org.example.pdftool.render.RenderService;
+import org.example.pdftool.render.ThumbnailGenerator;
 import org.example.pdftool.theme.Theme;
-import org.example.pdftool.view.PDFDocumentView;
-import org.example.pdftool.view.PageCounter;
-import org.example.pdftool.view.SearchBar;
+import org.example.pdftool.view.DocumentTab;
+import org.example.pdftool.view.MetricsOverlay;
+import org.example.pdftool.view.OrganizePagesDialog;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
 
 public class PDFToolApp extends Application {
     // Class variables
-    private PDFController pdfController;
-    private PDFDocumentView documentView;
-    private PageCounter pageCounter;
-    private SearchBar searchBar;
+    // Every tab renders through the same workers into the same cache, so memory is budgeted once
+    private final RenderService renderService = new RenderService();
+    private final PageImageCache pageCache = new PageImageCache();
+    private final ThumbnailGenerator thumbnailGenerator = new ThumbnailGenerator(renderService);
+    private final TabPane tabPane = new TabPane();
+    private final MetricsOverlay metricsOverlay = new MetricsOverlay();
+    private final Label indexStatus = new Label();
+
+    private static final String EXPORT_PNG = "PNG images";
+    private static final String EXPORT_JPEG = "JPEG images";
+    private static final String EXPORT_PDF_RANGES = "PDF per range";
+    private static final String EXPORT_PDF_CHAPTERS = "PDF per chapter";
+    private final HBox bottomBox = new HBox();
     private final BorderPane root = new BorderPane();
 
     // Menu variables
     Menu fileMenu = new Menu("File");
+    Menu editMenu = new Menu("Edit");
+    Menu viewMenu = new Menu("View");
     Menu toolsMenu = new Menu("Tools");
     MenuItem searchTool = new MenuItem("Search");
     MenuItem openItem = new MenuItem("Open PDF...");
     MenuItem saveItem = new MenuItem("Save PDF...");
+    MenuItem exportItem = new MenuItem("Export Pages...");
+    MenuItem mergeItem = new MenuItem("Merge PDFs...");
+    MenuItem organizeItem = new MenuItem("Organize Pages...");
+    MenuItem cancelSaveItem = new MenuItem("Cancel Save/Export");
+    MenuItem closeItem = new MenuItem("Close Tab");
     MenuItem exitItem = new MenuItem("Exit");
+    MenuItem copyItem = new MenuItem("Copy");
+    CheckMenuItem continuousItem = new CheckMenuItem("Continuous Scroll");
+    CheckMenuItem thumbnailsItem = new CheckMenuItem("Thumbnails");
+    CheckMenuItem metricsItem = new CheckMenuItem("Performance Overlay");
+
+    private DocumentTab activeTab() {
+        return (DocumentTab) tabPane.getSelectionModel().getSelectedItem();
+    }
+
+    private DocumentTab addTab() {
+        DocumentTab tab = new DocumentTab(renderService, pageCache, thumbnailGenerator);
+        tab.setThumbnailsVisible(thumbnailsItem.isSelected());
+        tab.setOnClosed(event -> tabClosed(tab));
+        tabPane.getTabs().add(tab);
+        return tab;
+    }
+
+    private void tabClosed(DocumentTab tab) {
+        tab.close();
+        // Always leave somewhere to open the next file
+        if (tabPane.getTabs().isEmpty()) {
+            addTab();
+        }
+    }
+
+    // Hand the shared workers to the newly selected tab and show its search bar and page counter
+    private void tabSelected(DocumentTab previous, DocumentTab selected) {
+        if (previous != null) {
+            previous.deactivate();
+        }
+        if (selected == null) return;
+        selected.activate();
+        bottomBox.getChildren().setAll(indexStatus, selected.getSearchBar(), selected.getPageCounter());
+        continuousItem.setSelected(selected.getDocumentView().isContinuous());
+        metricsOverlay.setDocumentView(selected.getDocumentView());
+        updateCancelItem(selected);
+    }
+
+    // Cancel Save/Export applies to whichever the active tab has running
+    private void updateCancelItem(DocumentTab tab) {
+        PDFController controller = tab.getController();
+        cancelSaveItem.setDisable(!controller.isSaving() && !controller.isExporting() && !controller.isMerging());
+    }
 
-    private void openPDF(Stage stage, BorderPane root) {
+    private void openPDF(Stage stage) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Open PDF");
         fileChooser.getExtensionFilters().add(
@@ -52,31 +135,103 @@ public class PDFToolApp extends Application {
 
         File file = fileChooser.showOpenDialog(stage);
         if (file != null) {
-            try {
-                pdfController.clearSearchResults();
-                pdfController.loadPDFDocument(file);
-                documentView.setupRenderer();
-                documentView.displayCurrentPage();
-                pageCounter.updateLabel();
-            } catch (IOException e) {
-                // How to handle error?
-                e.printStackTrace();
-            }
             System.out.println("Selected file: " + file.getAbsolutePath());
+            openFile(file, null);
         }
     }
 
+    // Open file in tab, or (for null) in the current tab if nothing is open in it, otherwise alongside
+    private void openFile(File file, DocumentTab tab) {
+        if (tab == null) {
+            tab = activeTab();
+            if (tab == null || !tab.isEmpty()) {
+                tab = addTab();
+            }
+        }
+        tabPane.getSelectionModel().select(tab);
+        indexStatus.setText("Opening...");
+        indexStatus.setVisible(true);
+
+        DocumentTab openingTab = tab;
+        openingTab.open(file).whenComplete((shown, error) -> {
+            indexStatus.setVisible(false);
+            if (error != null) {
+                // How to handle error?
+                error.printStackTrace();
+                return;
+            }
+            if (shown) {
+                indexText(openingTab);
+            }
+        });
+    }
+
+    // Build (or load) the text index in the background, showing progress in the status label
+    private void indexText(DocumentTab tab) {
+        indexStatus.setText("Indexing...");
+        indexStatus.setVisible(true);
+        tab.getController().buildTextIndex((done, total) -> Platform.runLater(() ->
+                indexStatus.setText(String.format("Indexing %d%%", total == 0 ? 100 : done * 100 / total))
+        )).whenComplete((index, error) -> Platform.runLater(() -> indexStatus.setVisible(false)));
+    }
+
     private void savePDF(Stage stage) {
+        DocumentTab tab = activeTab();
+        PDFController controller = tab.getController();
+        if (!controller.hasDocument()) {
+            // No document loaded alert
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText("No Document Loaded");
+            alert.setContentText("Please open a PDF before saving");
+            alert.showAndWait();
+            return;
+        }
+        if (controller.isSaving()) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText("Save In Progress");
+            alert.setContentText("Wait for the current save to finish, or cancel it");
+            alert.showAndWait();
+            return;
+        }
+
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save PDF");
         fileChooser.getExtensionFilters().add(
                 new FileChooser.ExtensionFilter("PDF Files", "*.pdf")
         );
+        // Start at the open file: saving over it only has to append the changes
+        File source = controller.getDocumentFile();
+        fileChooser.setInitialDirectory(source.getParentFile());
+        fileChooser.setInitialFileName(source.getName());
 
         var file = fileChooser.showSaveDialog(stage);
         if (file != null) {
-            try {
-                pdfController.savePDFDocument(file);
+            indexStatus.setText("Saving...");
+            indexStatus.setVisible(true);
+            cancelSaveItem.setDisable(false);
+
+            // Written in the background; progress is in kilobytes
+            SaveTask task = controller.savePDFDocumentAsync(file, (done, total) -> Platform.runLater(() ->
+                    indexStatus.setText(String.format("Saving %d%%", total == 0 ? 100 : (int) (done * 100L / total)))
+            ));
+            task.getCompletion().whenComplete((mode, error) -> Platform.runLater(() -> {
+                indexStatus.setVisible(false);
+                updateCancelItem(activeTab());
+                if (task.isCancelled() || error instanceof CancellationException) {
+                    return;
+                }
+                if (error != null) {
+                    error.printStackTrace();
+                    // Error alert
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Error");
+                    alert.setHeaderText("Save Failed");
+                    alert.setContentText("Failed to save PDF to: " + file.getAbsolutePath());
+                    alert.showAndWait();
+                    return;
+                }
 
                 // Success alert
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -84,22 +239,201 @@ public class PDFToolApp extends Application {
                 alert.setHeaderText(null);
                 alert.setContentText("PDF saved to " + file.getAbsolutePath());
                 alert.showAndWait();
-            } catch (IllegalStateException e) {
-                // No document loaded alert
+            }));
+        }
+    }
+
+    private void exportPages(Stage stage) {
+        DocumentTab tab = activeTab();
+        PDFController controller = tab.getController();
+        if (!controller.hasDocument() || controller.isExporting()) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText(controller.hasDocument() ? "Export In Progress" : "No Document Loaded");
+            alert.setContentText(controller.hasDocument()
+                    ? "Wait for the current export to finish, or cancel it" : "Please open a PDF before exporting");
+            alert.showAndWait();
+            return;
+        }
+
+        // Pages, format and resolution
+        TextField pagesField = new TextField();
+        pagesField.setPromptText("All pages, or e.g. 1-5,9");
+        ChoiceBox<String> formatBox = new ChoiceBox<>();
+        formatBox.getItems().addAll(EXPORT_PNG, EXPORT_JPEG, EXPORT_PDF_RANGES, EXPORT_PDF_CHAPTERS);
+        formatBox.setValue(EXPORT_PNG);
+        TextField dpiField = new TextField("150");
+        dpiField.disableProperty().bind(formatBox.valueProperty().isEqualTo(EXPORT_PDF_RANGES)
+                .or(formatBox.valueProperty().isEqualTo(EXPORT_PDF_CHAPTERS)));
+        pagesField.disableProperty().bind(formatBox.valueProperty().isEqualTo(EXPORT_PDF_CHAPTERS));
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("Pages"), pagesField);
+        grid.addRow(1, new Label("Export as"), formatBox);
+        grid.addRow(2, new Label("DPI"), dpiField);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Export Pages");
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) return;
+
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Export To");
+        directoryChooser.setInitialDirectory(controller.getDocumentFile().getParentFile());
+        File directory = directoryChooser.showDialog(stage);
+        if (directory == null) return;
+
+        ProgressListener progress = (done, total) -> Platform.runLater(() ->
+                indexStatus.setText(String.format("Exporting %d%%", total == 0 ? 100 : done * 100 / total)));
+        ExportTask task;
+        try {
+            String pages = pagesField.getText().trim();
+            var ranges = pages.isEmpty() ? null : PageRanges.parse(pages);
+            task = switch (formatBox.getValue()) {
+                case EXPORT_PDF_RANGES -> controller.exportPdfs(ranges, directory, progress);
+                case EXPORT_PDF_CHAPTERS -> controller.exportChapters(directory, progress);
+                default -> controller.exportImages(ranges, directory,
+                        formatBox.getValue().equals(EXPORT_JPEG) ? ExportTask.ImageFormat.JPEG : ExportTask.ImageFormat.PNG,
+                        Float.parseFloat(dpiField.getText().trim()), progress);
+            };
+        } catch (IllegalArgumentException | IOException e) {
+            // Bad ranges or DPI, or nothing to export
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText("Can't Export");
+            alert.setContentText(e.getMessage());
+            alert.showAndWait();
+            return;
+        }
+
+        indexStatus.setText("Exporting...");
+        indexStatus.setVisible(true);
+        cancelSaveItem.setDisable(false);
+        task.getCompletion().whenComplete((files, error) -> Platform.runLater(() -> {
+            indexStatus.setVisible(false);
+            updateCancelItem(activeTab());
+            if (task.isCancelled() || error instanceof CancellationException) {
+                return;
+            }
+            if (error != null) {
+                error.printStackTrace();
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle("Error");
-                alert.setHeaderText("No Document Loaded");
-                alert.setContentText("Please open a PDF before saving");
+                alert.setHeaderText("Export Failed");
+                alert.setContentText("Failed to export to: " + directory.getAbsolutePath());
                 alert.showAndWait();
-            } catch (IOException e) {
-                // Error alert
+                return;
+            }
+
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Success");
+            alert.setHeaderText(null);
+            alert.setContentText(files + " files exported to " + directory.getAbsolutePath());
+            alert.showAndWait();
+        }));
+    }
+
+    private void mergePDFs(Stage stage) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Choose PDFs to Merge, in Order");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("PDF Files", "*.pdf")
+        );
+        List<File> sources = fileChooser.showOpenMultipleDialog(stage);
+        if (sources == null || sources.isEmpty()) return;
+
+        FileChooser saveChooser = new FileChooser();
+        saveChooser.setTitle("Save Merged PDF");
+        saveChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("PDF Files", "*.pdf")
+        );
+        saveChooser.setInitialDirectory(sources.get(0).getParentFile());
+        saveChooser.setInitialFileName("merged.pdf");
+        File target = saveChooser.showSaveDialog(stage);
+        if (target == null) return;
+
+        // Needs no document; any tab's controller will do
+        writeInBackground("Merging", "Merge", target, null,
+                () -> activeTab().getController().mergeFiles(sources, target, mergeProgress()));
+    }
+
+    private void organizePages(Stage stage) {
+        DocumentTab tab = activeTab();
+        PDFController controller = tab.getController();
+        if (!controller.hasDocument()) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText("No Document Loaded");
+            alert.setContentText("Please open a PDF before organizing its pages");
+            alert.showAndWait();
+            return;
+        }
+
+        var pages = new OrganizePagesDialog(controller.getPageCount()).showAndWait().orElse(null);
+        if (pages == null) return;
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Organized PDF");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("PDF Files", "*.pdf")
+        );
+        File source = controller.getDocumentFile();
+        fileChooser.setInitialDirectory(source.getParentFile());
+        fileChooser.setInitialFileName(source.getName());
+        File target = fileChooser.showSaveDialog(stage);
+        if (target == null) return;
+
+        int[] pageOrder = pages.stream().mapToInt(page -> page[0]).toArray();
+        int[] rotations = pages.stream().mapToInt(page -> page[1]).toArray();
+        // Written over the open file, the tab reopens it; otherwise the result opens alongside
+        DocumentTab reopen = target.getAbsoluteFile().equals(source.getAbsoluteFile()) ? tab : null;
+        writeInBackground("Writing", "Organize", target, reopen,
+                () -> controller.writePages(pageOrder, rotations, target, mergeProgress()));
+    }
+
+    private ProgressListener mergeProgress() {
+        return (done, total) -> Platform.runLater(() ->
+                indexStatus.setText(String.format("Writing %d%%", total == 0 ? 100 : (int) (done * 100L / total))));
+    }
+
+    // Run a merge or page rewrite, then open what it wrote
+    private void writeInBackground(String status, String action, File target, DocumentTab reopen,
+                                   Supplier<MergeTask> start) {
+        MergeTask task;
+        try {
+            task = start.get();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText("Can't " + action);
+            alert.setContentText(e.getMessage());
+            alert.showAndWait();
+            return;
+        }
+
+        indexStatus.setText(status + "...");
+        indexStatus.setVisible(true);
+        cancelSaveItem.setDisable(false);
+        task.getCompletion().whenComplete((file, error) -> Platform.runLater(() -> {
+            indexStatus.setVisible(false);
+            updateCancelItem(activeTab());
+            if (task.isCancelled() || error instanceof CancellationException) {
+                return;
+            }
+            if (error != null) {
+                error.printStackTrace();
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle("Error");
-                alert.setHeaderText("Save Failed");
-                alert.setContentText("Failed to save PDF to: " + file.getAbsolutePath());
+                alert.setHeaderText(action + " Failed");
+                alert.setContentText("Failed to write PDF to: " + target.getAbsolutePath());
                 alert.showAndWait();
+                return;
             }
-        }
+            openFile(file, reopen != null && tabPane.getTabs().contains(reopen) ? reopen : null);
+        }));
     }
 
     private void setupMenuBar() {
@@ -109,11 +443,17 @@ public class PDFToolApp extends Application {
         // Keyboard shortcuts
         openItem.setAccelerator(new KeyCodeCombination(KeyCode.O, KeyCombination.CONTROL_DOWN));
         saveItem.setAccelerator(new KeyCodeCombination(KeyCode.S, KeyCombination.CONTROL_DOWN));
+        closeItem.setAccelerator(new KeyCodeCombination(KeyCode.W, KeyCombination.CONTROL_DOWN));
 
         // Add menus to menu bar
-        fileMenu.getItems().addAll(openItem, saveItem, exitItem);
-        toolsMenu.getItems().addAll(searchTool);
-        menuBar.getMenus().addAll(fileMenu, toolsMenu);
+        fileMenu.getItems().addAll(openItem, saveItem, exportItem, mergeItem, cancelSaveItem, closeItem, exitItem);
+        cancelSaveItem.setDisable(true);
+        metricsItem.setAccelerator(new KeyCodeCombination(KeyCode.M, KeyCombination.CONTROL_DOWN, KeyCombination.SHIFT_DOWN));
+        copyItem.setAccelerator(new KeyCodeCombination(KeyCode.C, KeyCombination.CONTROL_DOWN));
+        editMenu.getItems().addAll(copyItem);
+        viewMenu.getItems().addAll(continuousItem, thumbnailsItem, metricsItem);
+        toolsMenu.getItems().addAll(searchTool, organizeItem);
+        menuBar.getMenus().addAll(fileMenu, editMenu, viewMenu, toolsMenu);
 
         // Add menu bar to root
         root.setTop(menuBar);
@@ -131,39 +471,66 @@ public class PDFToolApp extends Application {
             System.out.println("Font loaded: " + font.getFamily());
         }
 
-            // Initialise controller
-            pdfController = new PDFController();
-            pageCounter = new PageCounter(pdfController);
-            documentView = new PDFDocumentView(pdfController, pageCounter);
-            searchBar = new SearchBar(pdfController, documentView, pageCounter);
-
             // Create menu
             setupMenuBar();
 
             // Create bottom VBox
-            HBox bottomBox = new HBox();
             bottomBox.setAlignment(Pos.CENTER_RIGHT);
             bottomBox.setStyle("-fx-background-color: " + Theme.SURFACE);
             bottomBox.setSpacing(10);
             bottomBox.setPadding(new Insets(10, 15, 10, 15));
-            bottomBox.getChildren().addAll(searchBar, pageCounter);
+            indexStatus.setStyle("-fx-text-fill: " + Theme.TEXT_SECONDARY + "; -fx-font-size: 13px;");
+            indexStatus.setVisible(false);
+            bottomBox.getChildren().add(indexStatus);
+
+            // One tab per open document
+            tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) ->
+                    tabSelected((DocumentTab) oldTab, (DocumentTab) newTab));
+            thumbnailsItem.setSelected(true);
+            addTab();
 
+            // Timings and counters, over JMX and (optionally) on screen
+            PerformanceMetrics.get().setPageCache(pageCache);
+            PerformanceMetrics.registerMBean();
+            StackPane centre = new StackPane(tabPane, metricsOverlay);
+            StackPane.setAlignment(metricsOverlay, Pos.TOP_RIGHT);
+            StackPane.setMargin(metricsOverlay, new Insets(40, 20, 0, 0));
 
-            // Add document view to root
-            root.setCenter(documentView);
+            // Add tabs to root
+            root.setCenter(centre);
             root.setBottom(bottomBox);
-            BorderPane.setMargin(documentView, new Insets(2));
 
             // Create the scene
             Scene scene = new Scene(root, 2000, 1200);
             scene.getStylesheets().add(getClass().getResource("/style.css").toExternalForm());
 
             // Event handlers
-            openItem.setOnAction(event -> openPDF(stage, root));
+            openItem.setOnAction(event -> openPDF(stage));
             saveItem.setOnAction(event -> savePDF(stage));
+            exportItem.setOnAction(event -> exportPages(stage));
+            mergeItem.setOnAction(event -> mergePDFs(stage));
+            organizeItem.setOnAction(event -> organizePages(stage));
+            cancelSaveItem.setOnAction(event -> {
+                activeTab().getController().cancelSave();
+                activeTab().getController().cancelExport();
+                activeTab().getController().cancelMerge();
+            });
+            closeItem.setOnAction(event -> closeActiveTab());
             exitItem.setOnAction(event -> Platform.exit());
+            copyItem.setOnAction(event -> {
+                // The search field copies its own text
+                if (scene.getFocusOwner() instanceof TextInputControl field) {
+                    field.copy();
+                } else {
+                    activeTab().getDocumentView().copySelection();
+                }
+            });
+            continuousItem.setOnAction(event -> activeTab().getDocumentView().setContinuous(continuousItem.isSelected()));
+            thumbnailsItem.setOnAction(event -> tabPane.getTabs().forEach(tab ->
+                    ((DocumentTab) tab).setThumbnailsVisible(thumbnailsItem.isSelected())));
+            metricsItem.setOnAction(event -> metricsOverlay.setShowing(metricsItem.isSelected()));
             searchTool.setAccelerator(new KeyCodeCombination(KeyCode.F, KeyCombination.CONTROL_DOWN));
-            searchTool.setOnAction(event -> searchBar.toggle());
+            searchTool.setOnAction(event -> activeTab().getSearchBar().toggle());
 
             // Show window
             stage.setTitle("PDF Tool");
@@ -172,6 +539,22 @@ public class PDFToolApp extends Application {
         }
 
 
+    private void closeActiveTab() {
+        DocumentTab tab = activeTab();
+        if (tab == null) return;
+        tabPane.getTabs().remove(tab);
+        tabClosed(tab);
+    }
+
+    @Override
+    public void stop() {
+        thumbnailGenerator.shutdown();
+        renderService.shutdown();
+        for (Tab tab : tabPane.getTabs()) {
+            ((DocumentTab) tab).close();
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
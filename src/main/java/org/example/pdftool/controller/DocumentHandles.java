@@ -0,0 +1,79 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-thread read-only handles onto the currently loaded file.
+ * PDDocument is not thread safe, so every worker thread gets its own copy
+ * (and its own renderer) instead of sharing the one owned by PDFController.
+ */
+public class DocumentHandles implements Closeable {
+    private final File file;
+    private final DocumentLoadPolicy loadPolicy;
+    private final ThreadLocal<PDDocument> documents = new ThreadLocal<>();
+    private final ThreadLocal<PDFRenderer> renderers = new ThreadLocal<>();
+    private final List<PDDocument> opened = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    public DocumentHandles(File file, DocumentLoadPolicy loadPolicy) {
+        this.file = file;
+        this.loadPolicy = loadPolicy;
+    }
+
+    public DocumentHandles(File file) {
+        this(file, DocumentLoadPolicy.fromSystemProperties());
+    }
+
+    public PDDocument getDocument() throws IOException {
+        if (closed) {throw new IOException("Document handles have been closed");}
+
+        PDDocument document = documents.get();
+        if (document == null) {
+            document = loadPolicy.load(file);
+            synchronized (opened) {
+                if (closed) {
+                    document.close();
+                    throw new IOException("Document handles have been closed");
+                }
+                opened.add(document);
+            }
+            documents.set(document);
+        }
+        return document;
+    }
+
+    public PDFRenderer getRenderer() throws IOException {
+        PDFRenderer renderer = renderers.get();
+        if (renderer == null) {
+            renderer = new PDFRenderer(getDocument());
+            renderers.set(renderer);
+        }
+        return renderer;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (opened) {
+            for (PDDocument document : opened) {
+                try {
+                    document.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            opened.clear();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * How documents are opened, in the spirit of PDFBox's MemoryUsageSetting.
+ *
+ * PDFBox only reads the trailer and cross-reference table up front and resolves
+ * pages and other objects on first use, so the cost of opening a file is mostly
+ * about where its bytes live. Large files are memory-mapped: their pages sit in
+ * the OS page cache, shared by every per-thread handle, instead of on the heap.
+ * Streams created while editing spill to a temp file past a small in-memory limit.
+ *
+ * Settings come from system properties:
+ * -Dpdftool.loadMode=auto|file|mapped, -Dpdftool.mapThresholdBytes=...,
+ * -Dpdftool.streamCacheBytes=...
+ */
+public final class DocumentLoadPolicy {
+    public enum Mode {
+        // Memory-map files at or above the threshold, buffered reads below it
+        AUTO,
+        // Read through a small buffer over a file channel (PDFBox's default)
+        FILE,
+        // Map the whole file; falls back to FILE above the 2 GB mapping limit
+        MAPPED
+    }
+
+    // A single MappedByteBuffer can't be bigger than this
+    private static final long MAX_MAPPED_BYTES = Integer.MAX_VALUE;
+
+    private final Mode mode;
+    private final long mapThresholdBytes;
+    private final long streamCacheBytes;
+
+    public DocumentLoadPolicy(Mode mode, long mapThresholdBytes, long streamCacheBytes) {
+        this.mode = mode;
+        this.mapThresholdBytes = mapThresholdBytes;
+        this.streamCacheBytes = streamCacheBytes;
+    }
+
+    public static DocumentLoadPolicy fromSystemProperties() {
+        Mode mode = Mode.AUTO;
+        String configured = System.getProperty("pdftool.loadMode");
+        if (configured != null) {
+            try {
+                mode = Mode.valueOf(configured.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown pdftool.loadMode '" + configured + "', using AUTO");
+            }
+        }
+        return new DocumentLoadPolicy(mode,
+                Long.getLong("pdftool.mapThresholdBytes", 32L * 1024 * 1024),
+                Long.getLong("pdftool.streamCacheBytes", 16L * 1024 * 1024));
+    }
+
+    public PDDocument load(File file) throws IOException {
+        RandomAccessRead source = open(file);
+        try {
+            // The document closes its source when it is closed
+            return Loader.loadPDF(source, MemoryUsageSetting.setupMixed(streamCacheBytes).streamCache);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    private RandomAccessRead open(File file) throws IOException {
+        return usesMapping(file.length())
+                ? new RandomAccessReadMemoryMappedFile(file)
+                : new RandomAccessReadBufferedFile(file);
+    }
+
+    boolean usesMapping(long fileLength) {
+        if (fileLength > MAX_MAPPED_BYTES) return false;
+        return switch (mode) {
+            case MAPPED -> true;
+            case FILE -> false;
+            case AUTO -> fileLength >= mapThresholdBytes;
+        };
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+}
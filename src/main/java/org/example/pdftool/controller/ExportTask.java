@@ -0,0 +1,209 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pages written out in the background: one image file per page, or one PDF per
+ * page range. Outputs are independent, so they are spread over a worker pool, and
+ * each is written to disk as soon as it is finished.
+ *
+ * Only one runner per worker is ever submitted; runners pull outputs from a shared
+ * queue, so memory holds at most one output in progress per worker however many
+ * pages are exported, and a slow page doesn't hold up a whole batch.
+ */
+public class ExportTask {
+    public enum ImageFormat {
+        PNG("png"),
+        JPEG("jpg");
+
+        private final String extension;
+
+        ImageFormat(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final float JPEG_QUALITY = 0.9f;
+
+    // One file to write, from the calling worker's own copy of the document
+    private record Output(File file, int pages, OutputWriter writer) {
+    }
+
+    @FunctionalInterface
+    private interface OutputWriter {
+        void write(DocumentHandles handles, File file) throws IOException;
+    }
+
+    private final Queue<Output> outputs;
+    private final int totalPages;
+    private final AtomicInteger pagesDone = new AtomicInteger();
+    private final AtomicInteger filesWritten = new AtomicInteger();
+    private final CompletableFuture<Integer> completion = new CompletableFuture<>();
+    private volatile boolean cancelled = false;
+    private volatile Throwable failure;
+
+    private ExportTask(List<Output> outputs) {
+        this.outputs = new ConcurrentLinkedQueue<>(outputs);
+        this.totalPages = outputs.stream().mapToInt(Output::pages).sum();
+    }
+
+    /**
+     * Render each page to directory/baseName-page-N.png (or .jpg) at dpi.
+     */
+    static ExportTask images(DocumentHandles handles, List<Integer> pages, int pageCount, File directory,
+                             String baseName, ImageFormat format, float dpi, ExecutorService executor, int workers,
+                             ProgressListener listener) {
+        // Padded to the document's page count, so names sort in page order and match between exports
+        int digits = String.valueOf(pageCount).length();
+        List<Output> outputs = new ArrayList<>(pages.size());
+        for (int pageIndex : pages) {
+            File file = new File(directory, String.format("%s-page-%0" + digits + "d.%s",
+                    baseName, pageIndex + 1, format.getExtension()));
+            outputs.add(new Output(file, 1, (source, target) -> {
+                PDFRenderer renderer = source.getRenderer();
+                BufferedImage image = renderer.renderImageWithDPI(pageIndex, dpi, ImageType.RGB);
+                writeImage(image, format, target);
+            }));
+        }
+        return start(handles, outputs, executor, workers, listener);
+    }
+
+    /**
+     * Copy each chapter's pages into directory/baseName-NN-title.pdf.
+     */
+    static ExportTask pdfs(DocumentHandles handles, List<PageRanges.Chapter> chapters, File directory,
+                           String baseName, ExecutorService executor, int workers, ProgressListener listener) {
+        List<Output> outputs = new ArrayList<>(chapters.size());
+        int digits = String.valueOf(chapters.size()).length();
+        for (int i = 0; i < chapters.size(); i++) {
+            PageRanges.Chapter chapter = chapters.get(i);
+            File file = new File(directory, String.format("%s-%0" + digits + "d-%s.pdf",
+                    baseName, i + 1, fileNamePart(chapter.title())));
+            outputs.add(new Output(file, chapter.lastPage() - chapter.firstPage() + 1,
+                    (source, target) -> writePdf(source.getDocument(), chapter, target)));
+        }
+        return start(handles, outputs, executor, workers, listener);
+    }
+
+    private static ExportTask start(DocumentHandles handles, List<Output> outputs, ExecutorService executor,
+                                    int workers, ProgressListener listener) {
+        ExportTask task = new ExportTask(outputs);
+        int runners = Math.max(1, Math.min(workers, outputs.size()));
+        List<CompletableFuture<Void>> running = new ArrayList<>(runners);
+        for (int i = 0; i < runners; i++) {
+            running.add(CompletableFuture.runAsync(() -> task.drain(handles, listener), executor));
+        }
+        CompletableFuture.allOf(running.toArray(CompletableFuture<?>[]::new)).whenComplete((ignored, error) -> {
+            Throwable cause = task.failure != null ? task.failure : error;
+            if (cause != null) {
+                task.completion.completeExceptionally(cause);
+            } else if (task.cancelled) {
+                task.completion.cancel(false);
+            } else {
+                task.completion.complete(task.filesWritten.get());
+            }
+        });
+        return task;
+    }
+
+    private void drain(DocumentHandles handles, ProgressListener listener) {
+        Output output;
+        while (!cancelled && failure == null && (output = outputs.poll()) != null) {
+            try {
+                output.writer().write(handles, output.file());
+            } catch (IOException | RuntimeException e) {
+                // One failure stops the export; files already finished are kept
+                synchronized (this) {
+                    if (failure == null) failure = e;
+                }
+                outputs.clear();
+                output.file().delete();
+                return;
+            }
+            filesWritten.incrementAndGet();
+            listener.onProgress(pagesDone.addAndGet(output.pages()), totalPages);
+        }
+    }
+
+    private static void writeImage(BufferedImage image, ImageFormat format, File file) throws IOException {
+        if (format == ImageFormat.PNG) {
+            if (!ImageIO.write(image, "png", file)) {
+                throw new IOException("No PNG writer available");
+            }
+            return;
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Pages are cloned, not re-encoded (see PageImporter); the output's own scratch data goes to a temp file
+    private static void writePdf(PDDocument source, PageRanges.Chapter chapter, File file) throws IOException {
+        try (PDDocument target = new PDDocument(MemoryUsageSetting.setupTempFileOnly().streamCache)) {
+            target.getDocument().setVersion(source.getVersion());
+            PageImporter importer = new PageImporter(target);
+            for (int pageIndex = chapter.firstPage(); pageIndex <= chapter.lastPage(); pageIndex++) {
+                importer.importPage(source.getPage(pageIndex));
+            }
+            target.save(file);
+        }
+    }
+
+    // Bookmark titles can contain anything; keep file names tame
+    private static String fileNamePart(String title) {
+        String cleaned = title.replaceAll("[^\\p{L}\\p{N} ._-]", "").trim().replaceAll("\\s+", "_");
+        if (cleaned.length() > 60) cleaned = cleaned.substring(0, 60);
+        return cleaned.isEmpty() ? "part" : cleaned;
+    }
+
+    /**
+     * Stop after the outputs already being written. Files that are finished are kept.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    // Completes with the number of files written
+    public CompletableFuture<Integer> getCompletion() {
+        return completion;
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.pdftool.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+/**
+ * Cheap identity for a file, used to key on-disk caches. Hashing a multi-gigabyte
+ * PDF in full would cost more than the caches save, so only the first and last
+ * megabyte are hashed, together with the length and modification time.
+ */
+public final class FileFingerprint {
+    private static final int SAMPLE_BYTES = 1024 * 1024;
+
+    private FileFingerprint() {
+    }
+
+    public static String of(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        long length = file.length();
+        digest.update((length + ":" + file.lastModified()).getBytes(StandardCharsets.UTF_8));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] buffer = new byte[(int) Math.min(SAMPLE_BYTES, length)];
+            raf.readFully(buffer);
+            digest.update(buffer);
+
+            if (length > SAMPLE_BYTES) {
+                raf.seek(Math.max(SAMPLE_BYTES, length - SAMPLE_BYTES));
+                int tail = (int) (length - raf.getFilePointer());
+                raf.readFully(buffer, 0, tail);
+                digest.update(buffer, 0, tail);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Per-user cache directory, e.g. ~/.pdftool/index
+    public static File cacheDirectory(String name) {
+        File directory = new File(new File(System.getProperty("user.home"), ".pdftool"), name);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("Could not create cache directory " + directory);
+        }
+        return directory;
+    }
+
+    /**
+     * Delete the least recently used entries of a cache directory (files, or
+     * per-document subdirectories) until it holds at most maxBytes. Caches mark
+     * an entry used by touching it, see touch(). The most recently used entry is
+     * always kept, however big, since it is the one being worked on.
+     */
+    public static void trimCache(File directory, long maxBytes) {
+        File[] entries = directory.listFiles();
+        if (entries == null) return;
+
+        long[] sizes = new long[entries.length];
+        long total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            sizes[i] = size(entries[i]);
+            total += sizes[i];
+        }
+        if (total <= maxBytes) return;
+
+        Integer[] oldestFirst = new Integer[entries.length];
+        Arrays.setAll(oldestFirst, i -> i);
+        Arrays.sort(oldestFirst, Comparator.comparingLong(i -> entries[i].lastModified()));
+        for (int n = 0; n < oldestFirst.length - 1 && total > maxBytes; n++) {
+            int i = oldestFirst[n];
+            if (delete(entries[i])) {
+                total -= sizes[i];
+            }
+        }
+    }
+
+    // Mark a cache entry as just used, so trimCache keeps it longest
+    public static void touch(File entry) {
+        entry.setLastModified(System.currentTimeMillis());
+    }
+
+    private static long size(File entry) {
+        File[] children = entry.listFiles();
+        if (children == null) return entry.length();
+        long total = 0;
+        for (File child : children) {
+            total += size(child);
+        }
+        return total;
+    }
+
+    private static boolean delete(File entry) {
+        File[] children = entry.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        return entry.delete();
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A new PDF assembled in the background from the pages of existing files:
+ * several documents merged end to end, or one document's pages reordered,
+ * rotated or deleted.
+ *
+ * Sources are opened through the load policy, so their bytes stay on disk (or
+ * in the OS page cache) and are only parsed as far as the pages taken need.
+ * Pages are cloned into the output (see PageImporter) with their content
+ * streams still encoded, so nothing is decoded or re-encoded. The output's
+ * scratch data, cloned streams included, goes to a temp file, and it is
+ * written the way SaveTask writes any document: beside the target, then moved
+ * over it.
+ */
+public class MergeTask {
+    // As a pageIndex: every page of the source, in order
+    public static final int ALL_PAGES = -1;
+
+    /**
+     * One page of the output: page pageIndex of source, turned a further
+     * rotation degrees clockwise.
+     */
+    public record PageRef(File source, int pageIndex, int rotation) {
+        public static PageRef allOf(File source) {
+            return new PageRef(source, ALL_PAGES, 0);
+        }
+    }
+
+    private final CompletableFuture<File> completion = new CompletableFuture<>();
+    private volatile boolean cancelled = false;
+
+    private MergeTask() {
+    }
+
+    /**
+     * Write pages, in order, to target. With bookmarkSources, each run of pages
+     * from one file gets a top-level bookmark named after it. Progress is in
+     * kilobytes written.
+     */
+    static MergeTask start(List<PageRef> pages, File target, boolean bookmarkSources, DocumentLoadPolicy loadPolicy,
+                           Executor executor, ProgressListener listener) {
+        MergeTask task = new MergeTask();
+        executor.execute(() -> task.run(pages, target, bookmarkSources, loadPolicy, listener));
+        return task;
+    }
+
+    private void run(List<PageRef> pages, File target, boolean bookmarkSources, DocumentLoadPolicy loadPolicy,
+                     ProgressListener listener) {
+        // Sources stay open so a file used more than once is parsed once, and its fonts and images cloned once
+        Map<File, PDDocument> sources = new LinkedHashMap<>();
+        try (PDDocument output = new PDDocument(MemoryUsageSetting.setupTempFileOnly().streamCache)) {
+            PageImporter importer = new PageImporter(output);
+            PDDocumentOutline outline = bookmarkSources ? new PDDocumentOutline() : null;
+            long expectedBytes = 0;
+            File previousSource = null;
+            for (PageRef ref : pages) {
+                if (cancelled) throw new CancellationException();
+                PDDocument source = sources.get(ref.source());
+                if (source == null) {
+                    source = loadPolicy.load(ref.source());
+                    sources.put(ref.source(), source);
+                    expectedBytes += ref.source().length();
+                    output.getDocument().setVersion(Math.max(output.getVersion(), source.getVersion()));
+                }
+
+                int firstAdded = output.getNumberOfPages();
+                if (ref.pageIndex() == ALL_PAGES) {
+                    for (PDPage page : source.getPages()) {
+                        importer.importPage(page);
+                    }
+                } else {
+                    PDPage page = source.getPage(ref.pageIndex());
+                    PDPage copy = importer.importPage(page);
+                    copy.setRotation(Math.floorMod(page.getRotation() + ref.rotation(), 360));
+                }
+
+                if (outline != null && !ref.source().equals(previousSource) && output.getNumberOfPages() > firstAdded) {
+                    PDOutlineItem bookmark = new PDOutlineItem();
+                    bookmark.setTitle(ref.source().getName());
+                    bookmark.setDestination(output.getPage(firstAdded));
+                    outline.addLast(bookmark);
+                }
+                previousSource = ref.source();
+            }
+            if (output.getNumberOfPages() == 0) throw new IOException("No pages to write");
+
+            if (outline != null && outline.hasChildren()) {
+                output.getDocumentCatalog().setDocumentOutline(outline);
+            }
+            // A rearranged document keeps its title and author; a merge of several has none of its own
+            if (sources.size() == 1) {
+                output.setDocumentInformation(sources.values().iterator().next().getDocumentInformation());
+            }
+            // Assembled; nothing is written yet, but the size to expect is known
+            listener.onProgress(0, (int) Math.max(expectedBytes / 1024, 1));
+
+            // Run inline, on this thread; checking for cancellation on each progress report stops the write
+            SaveTask save = SaveTask.startNew(output, target, expectedBytes, Runnable::run, (done, total) -> {
+                if (cancelled) throw new CancellationException();
+                listener.onProgress(done, total);
+            });
+            save.getCompletion().join();
+            completion.complete(target);
+        } catch (CancellationException e) {
+            completion.cancel(false);
+        } catch (CompletionException e) {
+            completion.completeExceptionally(e.getCause());
+        } catch (IOException | RuntimeException e) {
+            completion.completeExceptionally(e);
+        } finally {
+            for (PDDocument source : sources.values()) {
+                try {
+                    source.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop writing. The target is left as it was.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    // Completes with the file written, or is cancelled
+    public CompletableFuture<File> getCompletion() {
+        return completion;
+    }
+}
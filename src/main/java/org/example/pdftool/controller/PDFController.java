@@ -1,148 +1,573 @@
 package org.example.pdftool.controller;
 
-import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.rendering.PDFRenderer;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.pdfbox.text.TextPosition;
+import org.example.pdftool.metrics.DocumentLoadEvent;
+import org.example.pdftool.metrics.PageSearchEvent;
+import org.example.pdftool.metrics.PerformanceMetrics;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class PDFController {
     private PDDocument document;
+    // Built once per document; render workers have their own, from DocumentHandles
+    private PDFRenderer renderer;
+    private DocumentLoadPolicy loadPolicy = DocumentLoadPolicy.fromSystemProperties();
+    private volatile DocumentHandles documentHandles;
+    private volatile SaveTask.Source documentSource;
+    private volatile SaveTask activeSave;
+    private volatile ExportTask activeExport;
+    private volatile MergeTask activeMerge;
+    private volatile TextIndex textIndex;
+    private final TextLayerCache textLayers = new TextLayerCache();
+    private CompletableFuture<TextIndex> textIndexTask;
+    private volatile SearchTask activeSearch;
+    private volatile int searchCounter = 0;
     private int currentPage = 0;
+    private int navigationDirection = 1;
 
-    public static List<PDFSearchResult> currentSearchResults;
+    private volatile SearchResults searchResults = SearchResults.EMPTY;
     private int currentSearchIndex;
 
+    // One pool for every open document, sized to the machine rather than to the number of tabs
+    private static final int SEARCH_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService searchExecutor = Executors.newFixedThreadPool(SEARCH_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "pdf-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Saves are disk bound; running them one at a time keeps them from competing
+    private static final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pdf-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Rendering pages to images is CPU bound, so exports get a pool of their own
+    private static final int EXPORT_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService exportExecutor = Executors.newFixedThreadPool(EXPORT_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "pdf-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Text indexes in ~/.pdftool/index past this are dropped, least recently opened first
+    private static final long INDEX_CACHE_BYTES = Long.getLong("pdftool.indexCacheBytes", 256L * 1024 * 1024);
+
     public PDFController() {
-        currentSearchResults = new ArrayList<>();
         currentSearchIndex = -1;
     }
 
-    private static class PositionalTextStripper extends PDFTextStripper {
-        private final String searchTerm;
-        private final List<PDFSearchResult> results;
-        private final int pageNum;
+    public record PDFSearchResult(int pageNumber, String text, PDRectangle position) {
+    }
+
+    public SearchResults searchText(String searchTerm) throws IOException {
+        return searchText(SearchQuery.plain(searchTerm));
+    }
 
-        public PositionalTextStripper(String searchTerm, List<PDFSearchResult> results, int pageNum) {
-            this.searchTerm = searchTerm.toLowerCase();
-            this.results = results;
-            this.pageNum = pageNum;
-            setSortByPosition(true);
+    public SearchResults searchText(SearchQuery query) throws IOException {
+        SearchTask task = searchTextAsync(query, Runnable::run, null);
+        if (task == null) {
+            return SearchResults.EMPTY;
         }
 
-        @Override
-        protected void writeString(String text, List<TextPosition> textPositions) {
-            String lowerCaseText = text.toLowerCase();
-            int startIndex = lowerCaseText.indexOf(searchTerm);
+        try {
+            task.getCompletion().get();
+        } catch (InterruptedException e) {
+            task.cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        return searchResults;
+    }
 
-            if (startIndex != -1) {
-                System.out.println("Found a match for: " + searchTerm);
+    /**
+     * Start a search in the background, cancelling any search still running.
+     * Results are appended to the current results, in page order, as they are
+     * found; both that and the listener calls happen on callbackExecutor (pass
+     * Platform::runLater from the UI). Returns null for an empty search.
+     */
+    public SearchTask searchTextAsync(String searchTerm, Executor callbackExecutor, SearchTask.SearchListener listener) {
+        return searchTextAsync(SearchQuery.plain(searchTerm), callbackExecutor, listener);
+    }
 
-                int endIndex = startIndex + searchTerm.length();
+    /**
+     * As above, for a regex, whole-word, accent-insensitive or multi-term query.
+     *
+     * @throws java.util.regex.PatternSyntaxException if query is an invalid regex
+     */
+    public SearchTask searchTextAsync(SearchQuery query, Executor callbackExecutor, SearchTask.SearchListener listener) {
+        System.out.println("Searching for " + query.text());
+        if (activeSearch != null) {
+            activeSearch.cancel();
+            activeSearch = null;
+        }
+        if (document == null || query.isEmpty()) {
+            System.out.println("Document null or empty search term");
+            return null;
+        }
 
-                // Find text position of matching word
-                TextPosition startPosition = null;
-                TextPosition endPosition = null;
-                int currentIndex = 0;
+        SearchQuery.Compiled compiled = query.compile();
+        clearSearchResults();
+        currentSearchIndex = -1;
 
-                for (TextPosition pos : textPositions) {
-                    if (currentIndex == startIndex) {
-                        startPosition = pos;
-                    }
-                    if (currentIndex == endIndex - 1) {
-                        endPosition = pos;
-                        break;
-                    }
-                    currentIndex += pos.getUnicode().length();
-                }
+        // Callbacks of a superseded search are ignored even if they were already queued
+        int searchId = ++searchCounter;
+        int pageCount = document.getNumberOfPages();
+        long started = System.nanoTime();
+        SearchTask.SearchListener merger = new SearchTask.SearchListener() {
+            @Override
+            public void onResults(List<PDFSearchResult> newResults, int pagesSearched, int pageCount) {
+                if (searchId != searchCounter) return;
+                searchResults = searchResults.append(newResults);
+                if (listener != null) listener.onResults(newResults, pagesSearched, pageCount);
+            }
 
-                // If we have good positions, store the position in a box
-                if (startPosition != null && endPosition != null) {
-                    PDRectangle position = new PDRectangle(
-                            startPosition.getXDirAdj(),
-                            startPosition.getYDirAdj(),
-                            endPosition.getXDirAdj() + endPosition.getWidth() - startPosition.getXDirAdj(),
-                            startPosition.getHeight()
-                    );
-                    results.add(new PDFSearchResult(pageNum, text.substring(startIndex, endIndex), position));
-                    System.out.println("Result size: " + results.size());
+            @Override
+            public void onComplete(int totalResults) {
+                if (searchId != searchCounter) return;
+                PerformanceMetrics.get().recordSearch(System.nanoTime() - started);
+                if (listener != null) listener.onComplete(totalResults);
+            }
+
+            @Override
+            public void onError(IOException e) {
+                if (listener != null) {
+                    listener.onError(e);
+                } else {
+                    SearchTask.SearchListener.super.onError(e);
                 }
             }
+        };
+
+        TextIndex index = textIndex;
+        if (index != null) {
+            // Once the text index is ready, searches run over its text instead of parsing pages
+            activeSearch = SearchTask.start(index, searchExecutor, searchChunkSize(pageCount), compiled,
+                    callbackExecutor, merger);
+        } else {
+            // Otherwise split the document into page ranges and search them in parallel,
+            // each worker reading through its own document handle
+            activeSearch = SearchTask.start(documentHandles, pageCount, searchExecutor, searchChunkSize(pageCount),
+                    (pageSource, pageNum) -> searchPage(pageSource, compiled, pageNum), callbackExecutor, merger);
         }
+        return activeSearch;
     }
 
+    public void cancelSearch() {
+        searchCounter++;
+        if (activeSearch != null) {
+            activeSearch.cancel();
+            activeSearch = null;
+        }
+    }
 
-    public record PDFSearchResult(int pageNumber, String text, PDRectangle position) {
+    private static int searchChunkSize(int pageCount) {
+        return Math.max(1, pageCount / (SEARCH_THREADS * 4));
     }
 
-    public List<PDFSearchResult> searchText(String searchTerm) throws IOException {
-        System.out.println("Searching for " + searchTerm);
-        if (document == null || searchTerm.isEmpty()) {
-            System.out.println("Document null or empty search term");
-            return Collections.emptyList();
+    /**
+     * Load the document's text index from the sidecar cache, or build it in the
+     * background and cache it. Searches fall back to page-by-page extraction until
+     * it completes.
+     */
+    public synchronized CompletableFuture<TextIndex> buildTextIndex(ProgressListener listener) {
+        if (document == null) {throw new IllegalStateException("No document has been loaded");}
+        if (textIndexTask != null) {return textIndexTask;}
+
+        DocumentHandles handles = documentHandles;
+        int pageCount = document.getNumberOfPages();
+        CompletableFuture<TextIndex> task = CompletableFuture.supplyAsync(() -> {
+            try {
+                File cacheFile = new File(FileFingerprint.cacheDirectory("index"),
+                        FileFingerprint.of(handles.getFile()) + ".idx");
+                TextIndex index = TextIndex.load(cacheFile, pageCount);
+                if (index == null) {
+                    index = TextIndex.build(handles, pageCount, searchExecutor, searchChunkSize(pageCount), listener);
+                    index.save(cacheFile);
+                    FileFingerprint.trimCache(cacheFile.getParentFile(), INDEX_CACHE_BYTES);
+                } else {
+                    FileFingerprint.touch(cacheFile);
+                }
+                listener.onProgress(pageCount, pageCount);
+                return index;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+
+        textIndexTask = task.whenComplete((index, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+            }
+            // Only keep it if the same document is still open
+            if (index != null && documentHandles == handles) {
+                textIndex = index;
+                // The index has every page's layer
+                textLayers.clear();
+            }
+        });
+        return textIndexTask;
+    }
+
+    /**
+     * The text layer of a page, for selection: from the text index once it is
+     * built, otherwise extracted in the background and cached.
+     */
+    public CompletableFuture<PageText> getTextLayer(int pageIndex) {
+        TextIndex index = textIndex;
+        if (index != null) {
+            return CompletableFuture.completedFuture(index.getPage(pageIndex));
         }
+        DocumentHandles handles = getDocumentHandles();
+        return textLayers.get(pageIndex, () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return PageText.extract(handles.getDocument(), pageIndex);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, searchExecutor));
+    }
 
-        clearSearchResults();
-        currentSearchIndex = -1;
+    // As above, but without waiting: null if the layer isn't built yet
+    public PageText getTextLayerIfReady(int pageIndex) {
+        TextIndex index = textIndex;
+        return index != null ? index.getPage(pageIndex) : textLayers.getIfReady(pageIndex);
+    }
+
+    public TextIndex getTextIndex() {
+        return textIndex;
+    }
+
+    /**
+     * Search one page on the calling thread, with no controller state involved,
+     * e.g. for batch jobs that run many documents side by side.
+     */
+    public static List<PDFSearchResult> searchPage(PDDocument pageSource, String searchTerm, int pageNum)
+            throws IOException {
+        return searchPage(pageSource, SearchQuery.plain(searchTerm).compile(), pageNum);
+    }
 
-        for (int pageNum = 0; pageNum < document.getNumberOfPages(); pageNum++) {
-            PositionalTextStripper stripper = new PositionalTextStripper(
-                    searchTerm,
-                    currentSearchResults,
-                    pageNum
-            );
-            stripper.setStartPage(pageNum + 1);
-            stripper.setEndPage(pageNum + 1);
-            stripper.getText(document);
+    public static List<PDFSearchResult> searchPage(PDDocument pageSource, SearchQuery.Compiled query, int pageNum)
+            throws IOException {
+        PageSearchEvent event = new PageSearchEvent();
+        event.begin();
+        long started = System.nanoTime();
+        List<PDFSearchResult> results = query.find(PageText.extract(pageSource, pageNum), pageNum);
+        PerformanceMetrics.get().recordSearchPage(System.nanoTime() - started, results.size());
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.page = pageNum;
+            event.hits = results.size();
+            event.commit();
         }
-        return currentSearchResults;
+        return results;
     }
 
     public PDFSearchResult getNextSearchResult() {
-        if (currentSearchResults.isEmpty()) return null;
-        currentSearchIndex = (currentSearchIndex + 1) % currentSearchResults.size();
-        return currentSearchResults.get(currentSearchIndex);
+        SearchResults results = searchResults;
+        if (results.isEmpty()) return null;
+        currentSearchIndex = (currentSearchIndex + 1) % results.size();
+        return results.get(currentSearchIndex);
     }
 
     public PDFSearchResult getPreviousSearchResult() {
-        if (currentSearchResults.isEmpty()) return null;
-        currentSearchIndex = (currentSearchIndex - 1) % currentSearchResults.size();
-        return currentSearchResults.get(currentSearchIndex);
+        SearchResults results = searchResults;
+        if (results.isEmpty()) return null;
+        currentSearchIndex = Math.floorMod(currentSearchIndex - 1, results.size());
+        return results.get(currentSearchIndex);
     }
 
     public void clearSearchResults() {
-        currentSearchResults.clear();
+        searchResults = SearchResults.EMPTY;
     }
 
-    public List<PDFSearchResult> getCurrentSearchResults() {
-        return currentSearchResults;
+    // Immutable snapshot; safe to pass to background threads
+    public SearchResults getCurrentSearchResults() {
+        return searchResults;
+    }
+
+    public PDFSearchResult getCurrentSearchResult() {
+        SearchResults results = searchResults;
+        return currentSearchIndex >= 0 && currentSearchIndex < results.size() ? results.get(currentSearchIndex) : null;
     }
 
     public int getCurrentSearchIndex() {
         return currentSearchIndex;
     }
 
+    // For the FX thread only; PDFRenderer isn't safe to share between threads
     public PDFRenderer getRenderer() {
         if (document == null) {throw new IllegalStateException("No document has been loaded");}
-        return new PDFRenderer(document);
+        if (renderer == null) {
+            renderer = new PDFRenderer(document);
+        }
+        return renderer;
     }
 
     public void loadPDFDocument(File file) throws IOException {
+        quietFontWarnings();
+        openLoadedDocument(file, load(loadPolicy, file));
+    }
+
+    // Load through policy, recording how long it took
+    private static PDDocument load(DocumentLoadPolicy policy, File file) throws IOException {
+        DocumentLoadEvent event = new DocumentLoadEvent();
+        event.begin();
+        long started = System.nanoTime();
+        PDDocument loaded = policy.load(file);
+        PerformanceMetrics.get().recordLoad(System.nanoTime() - started);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file.getPath();
+            event.bytes = file.length();
+            event.pages = loaded.getNumberOfPages();
+            event.commit();
+        }
+        return loaded;
+    }
+
+    /**
+     * Parse a document without touching the open one, so the FX thread stays free.
+     * Pass the result to openLoadedDocument on the FX thread, or close it if unwanted.
+     */
+    public CompletableFuture<PDDocument> loadInBackground(File file) {
+        DocumentLoadPolicy policy = loadPolicy;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                quietFontWarnings();
+                return load(policy, file);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    // Replace the open document with one already loaded from file
+    public void openLoadedDocument(File file, PDDocument loaded) throws IOException {
+        stopDocumentWork();
         if (document != null) {document.close();}
+        if (documentHandles != null) {documentHandles.close();}
+        cancelSearch();
+        resetTextIndex();
+        textLayers.clear();
+        document = loaded;
+        renderer = null;
+        documentSource = SaveTask.Source.of(file);
+        documentHandles = new DocumentHandles(file, loadPolicy);
+        currentPage = 0;
+        navigationDirection = 1;
+    }
+
+    private static void quietFontWarnings() {
         java.util.logging.Logger.getLogger("org.apache.fontbox.cff.Type1CharString").setLevel(java.util.logging.Level.SEVERE);
-        document = Loader.loadPDF(file);
+    }
+
+    // Applies to documents opened after this call
+    public void setLoadPolicy(DocumentLoadPolicy loadPolicy) {
+        this.loadPolicy = loadPolicy;
+    }
+
+    public DocumentLoadPolicy getLoadPolicy() {
+        return loadPolicy;
+    }
+
+    private synchronized void resetTextIndex() {
+        textIndex = null;
+        textIndexTask = null;
     }
 
     public void savePDFDocument(File file) throws IOException {
+        SaveTask task = savePDFDocumentAsync(file, ProgressListener.NONE);
+        try {
+            task.getCompletion().get();
+        } catch (InterruptedException e) {
+            task.cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("Save interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Save in the background, as an incremental update where the document allows
+     * it (see SaveTask). Progress is in kilobytes written.
+     */
+    public SaveTask savePDFDocumentAsync(File file, ProgressListener listener) {
         if (document == null) {throw new IllegalStateException("No document has been loaded");}
-        document.save(file);
+        if (activeSave != null && !activeSave.isDone()) {throw new IllegalStateException("A save is already running");}
+
+        // Removing encryption touches every object, so only a full rewrite will do
+        boolean incremental = !document.isAllSecurityToBeRemoved();
+        SaveTask.Source source = documentSource;
+        activeSave = SaveTask.start(source, loadPolicy, file, incremental, saveExecutor, listener,
+                () -> refreshSource(source));
+        return activeSave;
+    }
+
+    // The file may have grown or been replaced; later saves and page writes must see it as it is now
+    private synchronized void refreshSource(SaveTask.Source saved) {
+        if (documentSource == saved) {
+            documentSource = SaveTask.Source.of(saved.file());
+        }
+    }
+
+    public void cancelSave() {
+        if (activeSave != null) {
+            activeSave.cancel();
+        }
+    }
+
+    public boolean isSaving() {
+        return activeSave != null && !activeSave.isDone();
+    }
+
+    /**
+     * Render the pages in ranges (null for all) to one image file each in
+     * directory. Progress is in pages.
+     */
+    public ExportTask exportImages(List<int[]> ranges, File directory, ExportTask.ImageFormat format, float dpi,
+                                   ProgressListener listener) {
+        checkCanExport();
+        int pageCount = document.getNumberOfPages();
+        List<Integer> pages = PageRanges.select(ranges, pageCount);
+        if (pages.isEmpty()) {throw new IllegalArgumentException("No pages in range");}
+        activeExport = ExportTask.images(documentHandles, pages, pageCount, directory, exportBaseName(), format, dpi,
+                exportExecutor, EXPORT_THREADS, listener);
+        return activeExport;
+    }
+
+    /**
+     * Write each range to its own PDF in directory (null for one PDF per page).
+     */
+    public ExportTask exportPdfs(List<int[]> ranges, File directory, ProgressListener listener) {
+        checkCanExport();
+        int pageCount = document.getNumberOfPages();
+        List<PageRanges.Chapter> chapters = new ArrayList<>();
+        if (ranges == null) {
+            for (int page = 0; page < pageCount; page++) {
+                chapters.add(new PageRanges.Chapter("page " + (page + 1), page, page));
+            }
+        } else {
+            for (int[] range : ranges) {
+                int first = Math.max(1, range[0]);
+                int last = Math.min(pageCount, range[1]);
+                if (first <= last) {
+                    chapters.add(new PageRanges.Chapter("pages " + first + "-" + last, first - 1, last - 1));
+                }
+            }
+        }
+        if (chapters.isEmpty()) {throw new IllegalArgumentException("No pages in range");}
+        activeExport = ExportTask.pdfs(documentHandles, chapters, directory, exportBaseName(),
+                exportExecutor, EXPORT_THREADS, listener);
+        return activeExport;
+    }
+
+    /**
+     * Write each top-level bookmark's pages to its own PDF in directory.
+     */
+    public ExportTask exportChapters(File directory, ProgressListener listener) throws IOException {
+        checkCanExport();
+        List<PageRanges.Chapter> chapters = PageRanges.chapters(document);
+        if (chapters.isEmpty()) {throw new IllegalArgumentException("The document has no bookmarks to split on");}
+        activeExport = ExportTask.pdfs(documentHandles, chapters, directory, exportBaseName(),
+                exportExecutor, EXPORT_THREADS, listener);
+        return activeExport;
+    }
+
+    private void checkCanExport() {
+        if (document == null) {throw new IllegalStateException("No document has been loaded");}
+        if (isExporting()) {throw new IllegalStateException("An export is already running");}
+    }
+
+    private String exportBaseName() {
+        String name = getDocumentFile().getName();
+        return name.toLowerCase().endsWith(".pdf") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    public void cancelExport() {
+        if (activeExport != null) {
+            activeExport.cancel();
+        }
+    }
+
+    public boolean isExporting() {
+        return activeExport != null && !activeExport.isDone();
+    }
+
+    /**
+     * Merge whole files, in order, into target, with a bookmark at the start of
+     * each. Needs no open document. Progress is in kilobytes written.
+     */
+    public MergeTask mergeFiles(List<File> sources, File target, ProgressListener listener) {
+        if (sources.isEmpty()) {throw new IllegalArgumentException("No files to merge");}
+        checkCanMerge();
+        activeMerge = MergeTask.start(sources.stream().map(MergeTask.PageRef::allOf).toList(), target, true,
+                loadPolicy, saveExecutor, listener);
+        return activeMerge;
+    }
+
+    /**
+     * Write the open document's pages to target in a new order. pageOrder lists
+     * page indexes (pages left out are deleted), rotations the extra clockwise
+     * turn for each, in degrees. The open document itself is unchanged; open
+     * target to carry on with the result.
+     */
+    public MergeTask writePages(int[] pageOrder, int[] rotations, File target, ProgressListener listener) {
+        if (document == null) {throw new IllegalStateException("No document has been loaded");}
+        if (pageOrder.length == 0) {throw new IllegalArgumentException("A PDF needs at least one page");}
+        if (rotations.length != pageOrder.length) {
+            throw new IllegalArgumentException(pageOrder.length + " pages but " + rotations.length + " rotations");
+        }
+        int pageCount = getPageCount();
+        for (int pageIndex : pageOrder) {
+            if (pageIndex < 0 || pageIndex >= pageCount) {
+                throw new IllegalArgumentException("No page " + (pageIndex + 1) + " in a " + pageCount + "-page document");
+            }
+        }
+        checkCanMerge();
+        List<MergeTask.PageRef> pages = new ArrayList<>(pageOrder.length);
+        for (int i = 0; i < pageOrder.length; i++) {
+            pages.add(new MergeTask.PageRef(documentSource.file(), pageOrder[i], rotations[i]));
+        }
+        activeMerge = MergeTask.start(pages, target, false, loadPolicy, saveExecutor, listener);
+        return activeMerge;
+    }
+
+    private void checkCanMerge() {
+        if (isMerging()) {throw new IllegalStateException("A merge is already running");}
+    }
+
+    public void cancelMerge() {
+        if (activeMerge != null) {
+            activeMerge.cancel();
+        }
+    }
+
+    public boolean isMerging() {
+        return activeMerge != null && !activeMerge.isDone();
+    }
+
+    // The file the open document was read from
+    public File getDocumentFile() {
+        return documentSource != null ? documentSource.file() : null;
+    }
+
+    public boolean hasDocument() {
+        return document != null;
     }
 
     public PDDocument getDocument() {
@@ -152,6 +577,13 @@ public class PDFController {
         return document;
     }
 
+    public DocumentHandles getDocumentHandles() {
+        if (documentHandles == null) {
+            throw new IllegalStateException("No document has been loaded");
+        }
+        return documentHandles;
+    }
+
     public int getCurrentPage() {
         if (document == null) {
             throw new IllegalStateException("No document has been loaded");
@@ -161,6 +593,9 @@ public class PDFController {
 
     public void setCurrentPage(int currentPage) {
         if (document != null && currentPage < document.getNumberOfPages() && currentPage >= 0) {
+            if (currentPage != this.currentPage) {
+                navigationDirection = currentPage > this.currentPage ? 1 : -1;
+            }
             this.currentPage = currentPage;
         }
     }
@@ -169,9 +604,10 @@ public class PDFController {
         if (document == null) {
             throw new IllegalStateException("No document has been loaded");
         }
-        if (currentPage <= document.getNumberOfPages() - 1) {
+        if (currentPage < document.getNumberOfPages() - 1) {
             currentPage++;
         }
+        navigationDirection = 1;
         return currentPage;
     }
 
@@ -182,16 +618,43 @@ public class PDFController {
         if (currentPage > 0) {
             currentPage--;
         }
+        navigationDirection = -1;
         return currentPage;
     }
 
+    // 1 if the user was last paging forwards, -1 if backwards
+    public int getNavigationDirection() {
+        return navigationDirection;
+    }
+
     public int getPageCount() {
         return document != null ? document.getNumberOfPages() : 0;
     }
 
     public void closeDocument() throws IOException {
+        stopDocumentWork();
+        if (documentHandles != null) {
+            documentHandles.close();
+        }
         if (document != null) {
             document.close();
         }
+        renderer = null;
+    }
+
+    // Cancel, and wait for, any save or export still reading the open document
+    private void stopDocumentWork() {
+        // A save still reading the document has to stop before the document is closed
+        SaveTask save = activeSave;
+        if (save != null && !save.isDone()) {
+            save.cancel();
+            save.getCompletion().handle((mode, error) -> null).join();
+        }
+        // Exports read through the document handles, which are closed next
+        ExportTask export = activeExport;
+        if (export != null && !export.isDone()) {
+            export.cancel();
+            export.getCompletion().handle((files, error) -> null).join();
+        }
     }
 }
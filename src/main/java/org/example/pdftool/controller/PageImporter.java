@@ -0,0 +1,89 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.multipdf.PDFCloneUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import java.io.IOException;
+
+/**
+ * Copies pages into one target document. Every object a page uses is cloned
+ * into the target: objects still owned by a source keep that source's object
+ * numbers, which collide with other sources' when the target is written, and
+ * one source's content streams end up on another's pages. Streams are copied
+ * still encoded, so nothing is decoded or re-encoded, and into the target's
+ * own scratch storage. A font or image shared by several pages of a source is
+ * cloned once per importer, so use one importer for everything going into a
+ * target.
+ */
+public final class PageImporter {
+    private final PDDocument target;
+    private final PDFCloneUtility cloner;
+
+    public PageImporter(PDDocument target) {
+        this.target = target;
+        // Its constructor is only open to subclasses
+        this.cloner = new PDFCloneUtility(target) {
+        };
+    }
+
+    /**
+     * Add page to the end of the target. The source page is left untouched, so
+     * the source document stays usable, and may be closed once this returns.
+     */
+    public PDPage importPage(PDPage page) throws IOException {
+        COSDictionary shallow = new COSDictionary(page.getCOSObject());
+        PDPage copy = new PDPage(shallow);
+        shallow.removeItem(COSName.PARENT);
+        // These may be inherited from the source's page tree, which the copy leaves behind
+        copy.setMediaBox(page.getMediaBox());
+        copy.setCropBox(page.getCropBox());
+        copy.setRotation(page.getRotation());
+        copy.setResources(page.getResources());
+        // Article beads point into the source's threads
+        copy.getCOSObject().removeItem(COSName.B);
+        COSArray annotations = page.getCOSObject().getCOSArray(COSName.ANNOTS);
+        if (annotations != null) {
+            copy.getCOSObject().setItem(COSName.ANNOTS, detachAnnotations(annotations));
+        }
+
+        PDPage imported = new PDPage(cloner.cloneForNewDocument(shallow));
+        target.addPage(imported);
+        return imported;
+    }
+
+    /**
+     * Annotations point back at their page, and links at other pages, each of which
+     * leads up to the source's page tree: written as they are, one page would drag
+     * every page of its source into the output. Each annotation is copied with those
+     * references cut; a link's jump to another page is dropped, its box kept.
+     */
+    private static COSArray detachAnnotations(COSArray annotations) {
+        COSArray copies = new COSArray();
+        for (int i = 0; i < annotations.size(); i++) {
+            if (!(annotations.getObject(i) instanceof COSDictionary annotation)) continue;
+            // Viewers make their own popups; the copies would only point at the originals
+            if (COSName.POPUP.equals(annotation.getCOSName(COSName.SUBTYPE))) continue;
+
+            COSDictionary copy = new COSDictionary(annotation);
+            // Optional, and pointing it at the new page would make a loop PDFBox can't write
+            copy.removeItem(COSName.P);
+            copy.removeItem(COSName.POPUP);
+            copy.removeItem(COSName.IRT);
+            // Form fields aren't carried over, only how the widget looks
+            copy.removeItem(COSName.PARENT);
+            if (copy.getDictionaryObject(COSName.DEST) instanceof COSArray) {
+                copy.removeItem(COSName.DEST);
+            }
+            if (copy.getDictionaryObject(COSName.A) instanceof COSDictionary action
+                    && "GoTo".equals(action.getNameAsString(COSName.S))) {
+                copy.removeItem(COSName.A);
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Page ranges as typed by users, e.g. "1-5,9". Ranges are 1-based {first, last}
+ * pairs, inclusive; page indexes elsewhere are 0-based.
+ */
+public final class PageRanges {
+    // A titled run of pages, as 0-based indexes
+    public record Chapter(String title, int firstPage, int lastPage) {
+    }
+
+    private PageRanges() {
+    }
+
+    // "1-5,9" as {1, 5}, {9, 9}
+    public static List<int[]> parse(String ranges) {
+        List<int[]> parsed = new ArrayList<>();
+        for (String range : ranges.split(",")) {
+            String[] bounds = range.trim().split("-", 2);
+            try {
+                int first = Integer.parseInt(bounds[0].trim());
+                int last = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : first;
+                parsed.add(new int[]{first, last});
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad page range: " + range);
+            }
+        }
+        return parsed;
+    }
+
+    // 0-based page indexes, in order and clipped to the document; null ranges means every page
+    public static List<Integer> select(List<int[]> ranges, int pageCount) {
+        TreeSet<Integer> pages = new TreeSet<>();
+        if (ranges == null) {
+            for (int i = 0; i < pageCount; i++) {
+                pages.add(i);
+            }
+        } else {
+            for (int[] range : ranges) {
+                for (int page = Math.max(1, range[0]); page <= Math.min(pageCount, range[1]); page++) {
+                    pages.add(page - 1);
+                }
+            }
+        }
+        return new ArrayList<>(pages);
+    }
+
+    /**
+     * One chapter per top-level bookmark, running up to the next one. Pages before
+     * the first bookmark become a "Front matter" chapter. Empty if there is no outline.
+     */
+    public static List<Chapter> chapters(PDDocument document) throws IOException {
+        List<Chapter> chapters = new ArrayList<>();
+        PDDocumentOutline outline = document.getDocumentCatalog().getDocumentOutline();
+        if (outline == null) return chapters;
+
+        // First page of each chapter, keeping the first title where bookmarks share a page
+        TreeMap<Integer, String> starts = new TreeMap<>();
+        for (PDOutlineItem item : outline.children()) {
+            PDPage page = item.findDestinationPage(document);
+            int pageIndex = page != null ? document.getPages().indexOf(page) : -1;
+            if (pageIndex >= 0) {
+                starts.putIfAbsent(pageIndex, item.getTitle() != null ? item.getTitle() : "Chapter");
+            }
+        }
+        if (starts.isEmpty()) return chapters;
+
+        int pageCount = document.getNumberOfPages();
+        if (starts.firstKey() > 0) {
+            chapters.add(new Chapter("Front matter", 0, starts.firstKey() - 1));
+        }
+        for (var start : starts.entrySet()) {
+            Integer next = starts.higherKey(start.getKey());
+            chapters.add(new Chapter(start.getValue(), start.getKey(), next != null ? next - 1 : pageCount - 1));
+        }
+        return chapters;
+    }
+}
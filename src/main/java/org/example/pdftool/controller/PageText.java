@@ -0,0 +1,303 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The text layer of one page: characters in reading order with, for every
+ * character, the box of the glyph it came from. Word and line breaks appear in
+ * the text with empty boxes. Searches run over it, and selection hit-tests
+ * against it, without going back to PDFTextStripper.
+ *
+ * Queries run over a normalized stream derived from it, where any run of breaks is
+ * a single space (so a phrase can match across a line break) and, optionally,
+ * accents are stripped and ligatures expanded. Each normalized character records
+ * the text offset it came from, which maps a match back to glyph boxes.
+ */
+public final class PageText {
+    private final String text;
+    // Four floats per character: x, y, width, height (PDFBox "DirAdj" coordinates)
+    private final float[] boxes;
+    private volatile Normalized exact;
+    private volatile Normalized folded;
+
+    // Folding is per character, and pages repeat the same few characters endlessly
+    private static final Map<Character, String> FOLDED_CHARS = new ConcurrentHashMap<>();
+
+    /**
+     * @param sourceOffsets for each char, its offset in the page text
+     */
+    record Normalized(char[] chars, int[] sourceOffsets) {
+    }
+
+    PageText(String text, float[] boxes) {
+        this.text = text;
+        this.boxes = boxes;
+    }
+
+    private static class Stripper extends PDFTextStripper {
+        private final StringBuilder text = new StringBuilder();
+        private float[] boxes = new float[1024];
+
+        Stripper() {
+            setSortByPosition(true);
+        }
+
+        @Override
+        protected void writeString(String chunk, List<TextPosition> textPositions) {
+            for (TextPosition position : textPositions) {
+                String unicode = position.getUnicode();
+                for (int i = 0; i < unicode.length(); i++) {
+                    append(unicode.charAt(i), position.getXDirAdj(), position.getYDirAdj(),
+                            position.getWidth(), position.getHeight());
+                }
+            }
+        }
+
+        @Override
+        protected void writeWordSeparator() {
+            append(' ', 0, 0, 0, 0);
+        }
+
+        @Override
+        protected void writeLineSeparator() {
+            append('\n', 0, 0, 0, 0);
+        }
+
+        private void append(char c, float x, float y, float width, float height) {
+            int offset = text.length() * 4;
+            if (offset + 4 > boxes.length) {
+                float[] grown = new float[boxes.length * 2];
+                System.arraycopy(boxes, 0, grown, 0, boxes.length);
+                boxes = grown;
+            }
+            boxes[offset] = x;
+            boxes[offset + 1] = y;
+            boxes[offset + 2] = width;
+            boxes[offset + 3] = height;
+            text.append(c);
+        }
+
+        PageText extractPage(PDDocument document, int pageNum) throws IOException {
+            text.setLength(0);
+            setStartPage(pageNum + 1);
+            setEndPage(pageNum + 1);
+            getText(document);
+
+            float[] trimmed = new float[text.length() * 4];
+            System.arraycopy(boxes, 0, trimmed, 0, trimmed.length);
+            return new PageText(text.toString(), trimmed);
+        }
+    }
+
+    /**
+     * Reusable extraction, for running through many pages on one thread.
+     */
+    public static final class Extractor {
+        private final Stripper stripper = new Stripper();
+
+        public PageText extract(PDDocument document, int pageNum) throws IOException {
+            return stripper.extractPage(document, pageNum);
+        }
+    }
+
+    public static PageText extract(PDDocument document, int pageNum) throws IOException {
+        return new Extractor().extract(document, pageNum);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public float[] getBoxes() {
+        return boxes;
+    }
+
+    Normalized normalized(boolean foldDiacritics) {
+        Normalized stream = foldDiacritics ? folded : exact;
+        if (stream == null) {
+            stream = normalize(foldDiacritics);
+            if (foldDiacritics) {
+                folded = stream;
+            } else {
+                exact = stream;
+            }
+        }
+        return stream;
+    }
+
+    private Normalized normalize(boolean foldDiacritics) {
+        char[] chars = new char[text.length() + 16];
+        int[] sourceOffsets = new int[chars.length];
+        int length = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            // Per-character case folding keeps the stream aligned with the text
+            char c = foldCase(text.charAt(i));
+            String emitted;
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                // Collapse every run of breaks to one space, and drop leading ones
+                if (length == 0 || chars[length - 1] == ' ') continue;
+                emitted = " ";
+            } else {
+                emitted = foldDiacritics ? fold(c) : null;
+            }
+
+            int count = emitted != null ? emitted.length() : 1;
+            if (length + count > chars.length) {
+                int capacity = Math.max(chars.length * 2, length + count);
+                chars = Arrays.copyOf(chars, capacity);
+                sourceOffsets = Arrays.copyOf(sourceOffsets, capacity);
+            }
+            for (int j = 0; j < count; j++) {
+                chars[length] = emitted != null ? emitted.charAt(j) : c;
+                sourceOffsets[length++] = i;
+            }
+        }
+        return new Normalized(Arrays.copyOf(chars, length), Arrays.copyOf(sourceOffsets, length));
+    }
+
+    /**
+     * Lower case through upper case, so letters with more than one lower-case form
+     * (final and medial sigma, long s) come out the same. Queries go through this
+     * too: String.toLowerCase can lengthen text or pick a form by context.
+     */
+    static char foldCase(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // Accents removed, compatibility forms (ligatures, full-width...) expanded; c is already case-folded
+    static String fold(char c) {
+        if (c < 0x80) return String.valueOf(c);
+        return FOLDED_CHARS.computeIfAbsent(c, key -> foldText(String.valueOf(key)));
+    }
+
+    // NFKD, then combining marks dropped and the rest lower-cased
+    private static String foldText(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                    || type == Character.COMBINING_SPACING_MARK) {
+                continue;
+            }
+            folded.append(Character.toLowerCase(c));
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Box around text offsets [start, end). A match that runs on to another line
+     * is boxed on its first line, where the highlight starts.
+     */
+    public PDRectangle matchBox(int start, int end) {
+        while (start < end - 1 && boxes[start * 4 + 3] == 0) {
+            start++;
+        }
+        int last = start;
+        for (int i = start + 1; i < end && text.charAt(i) != '\n'; i++) {
+            // Separators have empty boxes, so only count real glyphs
+            if (boxes[i * 4 + 3] != 0) {
+                last = i;
+            }
+        }
+        float x = boxes[start * 4];
+        return new PDRectangle(x, boxes[start * 4 + 1], boxes[last * 4] + boxes[last * 4 + 2] - x, boxes[start * 4 + 3]);
+    }
+
+    /**
+     * Caret offset nearest a point in page space (the same space as the boxes):
+     * before or after the closest glyph on the closest line, whichever side the
+     * point is on. 0 for a page without text.
+     */
+    public int caretAt(float x, float y) {
+        int nearest = -1;
+        float nearestDy = Float.MAX_VALUE;
+        float nearestDx = Float.MAX_VALUE;
+        for (int i = 0; i < text.length(); i++) {
+            float height = boxes[i * 4 + 3];
+            if (height == 0) continue;
+            float left = boxes[i * 4];
+            float baseline = boxes[i * 4 + 1];
+            float dy = distance(y, baseline - height, baseline);
+            float dx = distance(x, left, left + boxes[i * 4 + 2]);
+            // Closest line first, then closest glyph along it
+            if (dy < nearestDy || (dy == nearestDy && dx < nearestDx)) {
+                nearest = i;
+                nearestDy = dy;
+                nearestDx = dx;
+            }
+        }
+        if (nearest < 0) return 0;
+        return x > boxes[nearest * 4] + boxes[nearest * 4 + 2] / 2 ? nearest + 1 : nearest;
+    }
+
+    // Whether the point is on a glyph, give or take slop points
+    public boolean isOverText(float x, float y, float slop) {
+        for (int i = 0; i < text.length(); i++) {
+            float height = boxes[i * 4 + 3];
+            if (height == 0) continue;
+            float left = boxes[i * 4];
+            float baseline = boxes[i * 4 + 1];
+            if (distance(x, left, left + boxes[i * 4 + 2]) <= slop && distance(y, baseline - height, baseline) <= slop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static float distance(float value, float low, float high) {
+        return value < low ? low - value : value > high ? value - high : 0;
+    }
+
+    // Offsets [start, end) of the word at offset, or an empty range between words
+    public int[] wordAt(int offset) {
+        int start = Math.min(offset, text.length());
+        int end = start;
+        while (start > 0 && Character.isLetterOrDigit(text.charAt(start - 1))) start--;
+        while (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) end++;
+        return new int[]{start, end};
+    }
+
+    /**
+     * Boxes covering text offsets [start, end), one per line, in the form
+     * matchBox returns.
+     */
+    public List<PDRectangle> selectionBoxes(int start, int end) {
+        List<PDRectangle> lineBoxes = new ArrayList<>();
+        int lineStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || text.charAt(i) == '\n') {
+                if (hasGlyph(lineStart, i)) {
+                    lineBoxes.add(matchBox(lineStart, i));
+                }
+                lineStart = i + 1;
+            }
+        }
+        return lineBoxes;
+    }
+
+    private boolean hasGlyph(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (boxes[i * 4 + 3] != 0) return true;
+        }
+        return false;
+    }
+
+    // Text offsets [start, end) as copied, one line per line
+    public String getText(int start, int end) {
+        return text.substring(start, end).strip();
+    }
+}
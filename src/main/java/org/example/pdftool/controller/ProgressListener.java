@@ -0,0 +1,12 @@
+package org.example.pdftool.controller;
+
+/**
+ * Progress callback for long-running document work. Called from background
+ * threads, so UI listeners need to hop back onto the FX thread themselves.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    void onProgress(int done, int total);
+
+    ProgressListener NONE = (done, total) -> {};
+}
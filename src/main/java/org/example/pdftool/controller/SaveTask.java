@@ -0,0 +1,257 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A save running in the background, written through a buffered file channel.
+ *
+ * The viewer never edits an open document, so saving it is writing out what it
+ * was opened from. PDDocument isn't thread-safe and the FX thread keeps reading
+ * the open one, so the save loads its own copy of the source file on the save
+ * thread and writes that.
+ *
+ * Saving to the file the document came from, still untouched on disk, has
+ * nothing to write: with no edits an incremental update would be empty, and
+ * appending one on every save would only grow the file. Anywhere else the save
+ * is an incremental update where possible (PDFBox copies the source bytes and
+ * adds an update after them), written beside the target and moved over it when
+ * complete, so a failed or cancelled save never leaves a half-written PDF
+ * behind (and never truncates a file the document still reads).
+ */
+public class SaveTask {
+    public enum Mode {
+        // Nothing written: the target is the source file, unchanged
+        UNCHANGED,
+        // The source bytes copied unchanged, followed by the changed objects
+        INCREMENTAL,
+        // Every object rewritten
+        FULL
+    }
+
+    // The file a document was parsed from, as it was at the time
+    public record Source(File file, long length, long lastModified) {
+        public static Source of(File file) {
+            return new Source(file, file.length(), file.lastModified());
+        }
+
+        boolean isUnchangedOnDisk() {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private final Mode mode;
+    // For progress only
+    private final long expectedBytes;
+    private final CompletableFuture<Mode> completion = new CompletableFuture<>();
+    private volatile boolean cancelled = false;
+
+    private SaveTask(Mode mode, long expectedBytes) {
+        this.mode = mode;
+        this.expectedBytes = expectedBytes;
+    }
+
+    /**
+     * Save the document opened from source to target on executor, loading it
+     * afresh through loadPolicy. incremental says whether an update would do
+     * (a document losing its encryption has to be rewritten in full). onSaved
+     * runs on the save thread once target is written, before the task completes.
+     */
+    static SaveTask start(Source source, DocumentLoadPolicy loadPolicy, File target, boolean incremental,
+                          Executor executor, ProgressListener listener, Runnable onSaved) {
+        SaveTask task = new SaveTask(chooseMode(source, target, incremental), source.length());
+        executor.execute(() -> task.run(() -> {
+            // The copy must be what the viewer shows, not whatever the file has become
+            if (!source.isUnchangedOnDisk()) {
+                throw new IOException(source.file() + " has changed on disk since it was opened");
+            }
+            if (task.mode == Mode.UNCHANGED) {
+                listener.onProgress(0, 0);
+                return;
+            }
+            try (PDDocument copy = loadPolicy.load(source.file())) {
+                task.write(copy, target, listener);
+            }
+            onSaved.run();
+        }));
+        return task;
+    }
+
+    /**
+     * Write a document that wasn't parsed from a file (e.g. one assembled from
+     * other documents' pages) in full. expectedBytes is a guess at its size.
+     */
+    static SaveTask startNew(PDDocument document, File target, long expectedBytes, Executor executor,
+                             ProgressListener listener) {
+        SaveTask task = new SaveTask(Mode.FULL, expectedBytes);
+        executor.execute(() -> task.run(() -> task.write(document, target, listener)));
+        return task;
+    }
+
+    @FunctionalInterface
+    private interface SaveWork {
+        void run() throws IOException;
+    }
+
+    private static Mode chooseMode(Source source, File target, boolean incremental) {
+        if (!incremental || source == null) return Mode.FULL;
+        try {
+            boolean sameFile = target.exists()
+                    && Files.isSameFile(source.file().toPath(), target.toPath());
+            return sameFile && source.isUnchangedOnDisk() ? Mode.UNCHANGED : Mode.INCREMENTAL;
+        } catch (IOException e) {
+            return Mode.INCREMENTAL;
+        }
+    }
+
+    private void run(SaveWork work) {
+        try {
+            if (cancelled) throw new CancellationException();
+            work.run();
+            completion.complete(mode);
+        } catch (CancellationException e) {
+            completion.cancel(false);
+        } catch (IOException | RuntimeException e) {
+            completion.completeExceptionally(cancelled ? new CancellationException() : e);
+        }
+    }
+
+    private void write(PDDocument document, File target, ProgressListener listener) throws IOException {
+        Path targetPath = target.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(targetPath.getParent(), target.getName(), ".tmp");
+        try {
+            keepPermissions(targetPath, temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ChannelOutputStream out = new ChannelOutputStream(channel, expectedBytes, listener)) {
+                if (mode == Mode.INCREMENTAL) {
+                    document.saveIncremental(out);
+                } else {
+                    document.save(out);
+                }
+                out.flush();
+                channel.force(false);
+                out.reportDone();
+            }
+            if (cancelled) throw new CancellationException();
+            Files.move(temp, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Temp files are private to the user; a replaced file should keep the access it had
+    private static void keepPermissions(Path target, Path temp) {
+        if (!Files.exists(target)) return;
+        try {
+            Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+        } catch (UnsupportedOperationException | IOException e) {
+            // Not a POSIX file system; the default is fine
+        }
+    }
+
+    /**
+     * Stop saving. The target is left exactly as it was before the save began.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Completes with the mode used, or is cancelled
+    public CompletableFuture<Mode> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Collects writes in a buffer and hands them to the channel in large blocks.
+     * Progress is reported in kilobytes against the
+     * expected size, which for a full rewrite can only be an estimate.
+     */
+    private class ChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final ProgressListener listener;
+        private long written = 0;
+        private final long expected;
+        private int reportedKb = -1;
+
+        ChannelOutputStream(FileChannel channel, long expected, ProgressListener listener) {
+            this.channel = channel;
+            this.expected = expected;
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (cancelled) throw new CancellationException();
+
+            written += length;
+            while (length > 0) {
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+            }
+            report();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void report() {
+            int doneKb = (int) (written / 1024);
+            if (doneKb == reportedKb) return;
+            reportedKb = doneKb;
+            // The estimate can be short; keep the total just ahead until the end
+            listener.onProgress(doneKb, (int) Math.max(expected / 1024, doneKb + 1));
+        }
+
+        void reportDone() {
+            int doneKb = (int) (written / 1024);
+            listener.onProgress(doneKb, doneKb);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package org.example.pdftool.controller;
+
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * What to search for. Plain queries may list several terms separated by "|", any
+ * of which counts as a hit; with regex set, text is a java.util.regex pattern
+ * instead. Matching is always case-insensitive, and runs over PageText's
+ * normalized stream, so phrases match across line breaks. Either way hits don't
+ * overlap: the scan takes the leftmost match, then carries on after its end.
+ *
+ * @param wholeWord        only matches with no letter or digit either side
+ * @param ignoreDiacritics "cafe" finds "café" (and ligatures match their letters)
+ */
+public record SearchQuery(String text, boolean regex, boolean wholeWord, boolean ignoreDiacritics) {
+    public static SearchQuery plain(String text) {
+        return new SearchQuery(text, false, false, false);
+    }
+
+    public boolean isEmpty() {
+        return regex ? text.isEmpty() : terms().isEmpty();
+    }
+
+    // Plain terms, normalized the way page text is
+    List<String> terms() {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : text.split("\\|")) {
+            String normalized = normalize(term);
+            if (!normalized.isEmpty()) {
+                terms.add(normalized);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    // Char by char, the way PageText.normalize treats the page
+    private String normalize(String term) {
+        StringBuilder normalized = new StringBuilder(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            char c = PageText.foldCase(term.charAt(i));
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                    normalized.append(' ');
+                }
+            } else {
+                normalized.append(ignoreDiacritics ? PageText.fold(c) : String.valueOf(c));
+            }
+        }
+        return normalized.toString().trim();
+    }
+
+    /**
+     * Prepare the query once, to be run against any number of pages.
+     *
+     * @throws PatternSyntaxException if regex is set and text isn't a valid pattern
+     */
+    public Compiled compile() {
+        if (regex) {
+            String pattern = ignoreDiacritics ? foldLiterals(text) : text;
+            return new Compiled(this, null, Pattern.compile(pattern, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+        }
+        return new Compiled(this, new TermMatcher(terms()), null);
+    }
+
+    /**
+     * Fold the literal characters of a pattern the way the page stream is folded,
+     * leaving the syntax alone: folding the whole source would lower-case escapes
+     * like \S or \P{L} into their opposites. Only non-ASCII characters fold, and
+     * case is left to CASE_INSENSITIVE. One that folds to several characters, like
+     * a ligature, becomes a group so a quantifier after it still covers all of it;
+     * inside a [class] it can't, so the class keeps the original and gains the
+     * folded character only when that is a single one and not a range's end.
+     */
+    static String foldLiterals(String pattern) {
+        StringBuilder folded = new StringBuilder(pattern.length());
+        int classDepth = 0;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (quoted) {
+                // Between \Q and \E everything is literal
+                if (c == '\\' && i + 1 < pattern.length() && pattern.charAt(i + 1) == 'E') {
+                    folded.append("\\E");
+                    quoted = false;
+                    i++;
+                } else {
+                    folded.append(PageText.fold(PageText.foldCase(c)));
+                }
+                continue;
+            }
+            if (c == '\\' && i + 1 < pattern.length()) {
+                char escaped = pattern.charAt(++i);
+                if (escaped == 'Q') {
+                    quoted = true;
+                    folded.append("\\Q");
+                } else if (escaped < 0x80) {
+                    folded.append(c).append(escaped);
+                } else {
+                    // An escaped non-ASCII character is just that character
+                    appendLiteral(folded, escaped, classDepth > 0, !isRangeEnd(pattern, i - 1, i));
+                }
+                continue;
+            }
+            if (c == '[') {
+                classDepth++;
+            } else if (c == ']' && classDepth > 0) {
+                classDepth--;
+            }
+            if (c < 0x80) {
+                folded.append(c);
+            } else {
+                appendLiteral(folded, c, classDepth > 0, !isRangeEnd(pattern, i, i));
+            }
+        }
+        return folded.toString();
+    }
+
+    // Whether the class member spanning [start, end] of pattern is next to a '-'
+    private static boolean isRangeEnd(String pattern, int start, int end) {
+        return (start > 0 && pattern.charAt(start - 1) == '-')
+                || (end + 1 < pattern.length() && pattern.charAt(end + 1) == '-');
+    }
+
+    private static void appendLiteral(StringBuilder pattern, char c, boolean inClass, boolean extendClass) {
+        String folded = PageText.fold(PageText.foldCase(c));
+        if (inClass) {
+            pattern.append(c);
+            if (extendClass && folded.length() == 1 && folded.charAt(0) != c) {
+                pattern.append(folded);
+            }
+        } else if (folded.length() == 1) {
+            pattern.append(folded);
+        } else {
+            pattern.append("(?:").append(folded).append(')');
+        }
+    }
+
+    /**
+     * A query ready to run. Each page is scanned once however many terms there are:
+     * plain terms go through a single Aho-Corasick automaton, so the cost is linear
+     * in the page's text plus the number of hits.
+     */
+    public static final class Compiled {
+        private final SearchQuery query;
+        private final TermMatcher terms;
+        private final Pattern pattern;
+
+        private Compiled(SearchQuery query, TermMatcher terms, Pattern pattern) {
+            this.query = query;
+            this.terms = terms;
+            this.pattern = pattern;
+        }
+
+        public List<PDFController.PDFSearchResult> find(PageText page, int pageNum) {
+            PageText.Normalized stream = page.normalized(query.ignoreDiacritics());
+            List<int[]> matches = pattern != null ? findPattern(stream.chars()) : terms.find(stream.chars());
+
+            List<PDFController.PDFSearchResult> results = new ArrayList<>(matches.size());
+            int[] sourceOffsets = stream.sourceOffsets();
+            for (int[] match : matches) {
+                if (query.wholeWord() && !isWholeWord(stream.chars(), match[0], match[1])) continue;
+
+                int start = sourceOffsets[match[0]];
+                int end = sourceOffsets[match[1] - 1] + 1;
+                results.add(new PDFController.PDFSearchResult(pageNum,
+                        page.getText().substring(start, end).replace('\n', ' '), page.matchBox(start, end)));
+            }
+            return results;
+        }
+
+        private List<int[]> findPattern(char[] chars) {
+            List<int[]> matches = new ArrayList<>();
+            Matcher matcher = pattern.matcher(CharBuffer.wrap(chars));
+            while (matcher.find()) {
+                // An empty match has nothing to highlight
+                if (matcher.end() > matcher.start()) {
+                    matches.add(new int[]{matcher.start(), matcher.end()});
+                }
+            }
+            return matches;
+        }
+
+        private static boolean isWholeWord(char[] chars, int start, int end) {
+            return (start == 0 || !Character.isLetterOrDigit(chars[start - 1]))
+                    && (end == chars.length || !Character.isLetterOrDigit(chars[end]));
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton over the terms, as a full transition table on the
+     * terms' own alphabet; any other character leads back to the root.
+     */
+    private static final class TermMatcher {
+        private final int[] asciiSymbols = new int[128];
+        private final Map<Character, Integer> otherSymbols = new HashMap<>();
+        private int[][] next;
+        // Length of the term ending at each node, or 0
+        private int[] termLength;
+        // Nearest node down the failure chain where a term ends
+        private int[] outputLink;
+
+        TermMatcher(List<String> terms) {
+            int symbolCount = 1;
+            for (String term : terms) {
+                for (int i = 0; i < term.length(); i++) {
+                    char c = term.charAt(i);
+                    if (symbol(c) == 0) {
+                        if (c < 128) {
+                            asciiSymbols[c] = symbolCount++;
+                        } else {
+                            otherSymbols.put(c, symbolCount++);
+                        }
+                    }
+                }
+            }
+
+            // The trie
+            List<int[]> nodes = new ArrayList<>();
+            List<Integer> lengths = new ArrayList<>();
+            nodes.add(newNode(symbolCount));
+            lengths.add(0);
+            for (String term : terms) {
+                int node = 0;
+                for (int i = 0; i < term.length(); i++) {
+                    int symbol = symbol(term.charAt(i));
+                    if (nodes.get(node)[symbol] < 0) {
+                        nodes.get(node)[symbol] = nodes.size();
+                        nodes.add(newNode(symbolCount));
+                        lengths.add(0);
+                    }
+                    node = nodes.get(node)[symbol];
+                }
+                lengths.set(node, term.length());
+            }
+
+            next = nodes.toArray(new int[0][]);
+            termLength = lengths.stream().mapToInt(Integer::intValue).toArray();
+            outputLink = new int[next.length];
+            int[] failure = new int[next.length];
+
+            // Breadth first, filling in missing transitions from the failure links
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int child = next[0][symbol];
+                if (child > 0) {
+                    queue.add(child);
+                } else {
+                    next[0][symbol] = 0;
+                }
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int symbol = 0; symbol < symbolCount; symbol++) {
+                    int child = next[node][symbol];
+                    if (child < 0) {
+                        next[node][symbol] = next[failure[node]][symbol];
+                    } else {
+                        failure[child] = next[failure[node]][symbol];
+                        outputLink[child] = termLength[failure[child]] > 0
+                                ? failure[child] : outputLink[failure[child]];
+                        queue.add(child);
+                    }
+                }
+            }
+        }
+
+        private static int[] newNode(int symbolCount) {
+            int[] transitions = new int[symbolCount];
+            Arrays.fill(transitions, -1);
+            return transitions;
+        }
+
+        private int symbol(char c) {
+            return c < 128 ? asciiSymbols[c] : otherSymbols.getOrDefault(c, 0);
+        }
+
+        // Leftmost, then longest, occurrences of the terms, none overlapping, ordered by start
+        List<int[]> find(char[] chars) {
+            List<int[]> hits = new ArrayList<>();
+            int node = 0;
+            for (int i = 0; i < chars.length; i++) {
+                node = next[node][symbol(chars[i])];
+                for (int hit = termLength[node] > 0 ? node : outputLink[node]; hit > 0; hit = outputLink[hit]) {
+                    hits.add(new int[]{i + 1 - termLength[hit], i + 1});
+                }
+            }
+            hits.sort(Comparator.<int[]>comparingInt(match -> match[0]).thenComparingInt(match -> -match[1]));
+
+            List<int[]> matches = new ArrayList<>(hits.size());
+            int end = 0;
+            for (int[] hit : hits) {
+                if (hit[0] >= end) {
+                    matches.add(hit);
+                    end = hit[1];
+                }
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.pdftool.controller;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Immutable snapshot of a document's search results, safe to hand to render
+ * threads. Results are always in page order, so the hits on one page form a
+ * contiguous run that onPage() finds by binary search.
+ *
+ * Appending returns a new snapshot. Where possible it writes into spare capacity
+ * of the shared backing array past this snapshot's size, so streaming results in
+ * batches stays linear rather than copying everything each time.
+ */
+public final class SearchResults extends AbstractList<PDFController.PDFSearchResult> implements RandomAccess {
+    public static final SearchResults EMPTY = new SearchResults(new PDFController.PDFSearchResult[0], 0);
+
+    private final PDFController.PDFSearchResult[] items;
+    private final int size;
+    // Only the first append may extend the shared array in place
+    private final AtomicBoolean extended = new AtomicBoolean(false);
+
+    private SearchResults(PDFController.PDFSearchResult[] items, int size) {
+        this.items = items;
+        this.size = size;
+    }
+
+    public SearchResults append(List<PDFController.PDFSearchResult> newResults) {
+        if (newResults.isEmpty()) return this;
+
+        int newSize = size + newResults.size();
+        PDFController.PDFSearchResult[] target = items;
+        if (newSize > items.length || !extended.compareAndSet(false, true)) {
+            target = Arrays.copyOf(items, Math.max(newSize, items.length * 2));
+        }
+        int previousPage = size > 0 ? items[size - 1].pageNumber() : -1;
+        for (int i = 0; i < newResults.size(); i++) {
+            PDFController.PDFSearchResult result = newResults.get(i);
+            if (result.pageNumber() < previousPage) {
+                throw new IllegalArgumentException("Search results must be appended in page order");
+            }
+            previousPage = result.pageNumber();
+            target[size + i] = result;
+        }
+        return new SearchResults(target, newSize);
+    }
+
+    @Override
+    public PDFController.PDFSearchResult get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return items[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hits on one page, in O(log n + hits on the page).
+     */
+    public List<PDFController.PDFSearchResult> onPage(int pageNumber) {
+        int from = firstIndexAtOrAfter(pageNumber);
+        int to = firstIndexAtOrAfter(pageNumber + 1);
+        return subList(from, to);
+    }
+
+    private int firstIndexAtOrAfter(int pageNumber) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items[mid].pageNumber() < pageNumber) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A search running in the background. Pages are searched in parallel page ranges,
+ * but results are handed to the listener strictly in page order, as soon as every
+ * page before them has been searched, so the first hit arrives after roughly one
+ * page's worth of work rather than the whole document's.
+ */
+public class SearchTask {
+    @FunctionalInterface
+    public interface PageSearcher {
+        List<PDFController.PDFSearchResult> search(PDDocument document, int pageNum) throws IOException;
+    }
+
+    public interface SearchListener {
+        // newResults continue on from everything delivered before, in page order
+        void onResults(List<PDFController.PDFSearchResult> newResults, int pagesSearched, int pageCount);
+
+        void onComplete(int totalResults);
+
+        default void onError(IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private final int pageCount;
+    private final List<List<PDFController.PDFSearchResult>> pageResults;
+    private final boolean[] pageDone;
+    private int nextPage = 0;
+    private int totalResults = 0;
+
+    private final Executor callbackExecutor;
+    private final SearchListener listener;
+    private final List<Future<?>> chunks = new ArrayList<>();
+    private final CompletableFuture<Integer> completion = new CompletableFuture<>();
+    private volatile boolean cancelled = false;
+
+    private SearchTask(int pageCount, Executor callbackExecutor, SearchListener listener) {
+        this.pageCount = pageCount;
+        this.pageResults = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            pageResults.add(null);
+        }
+        this.pageDone = new boolean[pageCount];
+        this.callbackExecutor = callbackExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Search every page through per-thread document handles.
+     */
+    static SearchTask start(DocumentHandles handles, int pageCount, ExecutorService executor, int chunkSize,
+                            PageSearcher searcher, Executor callbackExecutor, SearchListener listener) {
+        SearchTask task = new SearchTask(pageCount, callbackExecutor, listener);
+        task.submitRanges(executor, chunkSize,
+                (startPage, endPage) -> task.searchRange(handles, searcher, startPage, endPage));
+        return task;
+    }
+
+    /**
+     * Search the text index's pages. Nothing is parsed, but matching still scans
+     * every page, so it runs on the executor in page ranges like any other search.
+     */
+    static SearchTask start(TextIndex index, ExecutorService executor, int chunkSize, SearchQuery.Compiled query,
+                            Executor callbackExecutor, SearchListener listener) {
+        SearchTask task = new SearchTask(index.getPageCount(), callbackExecutor, listener);
+        task.submitRanges(executor, chunkSize,
+                (startPage, endPage) -> task.searchIndexRange(index, query, startPage, endPage));
+        return task;
+    }
+
+    @FunctionalInterface
+    private interface RangeSearch {
+        void run(int startPage, int endPage);
+    }
+
+    private void submitRanges(ExecutorService executor, int chunkSize, RangeSearch range) {
+        if (pageCount == 0) {
+            drain();
+            return;
+        }
+
+        synchronized (this) {
+            for (int firstPage = 0; firstPage < pageCount; firstPage += chunkSize) {
+                int startPage = firstPage;
+                int endPage = Math.min(pageCount, firstPage + chunkSize);
+                chunks.add(executor.submit(() -> range.run(startPage, endPage)));
+            }
+        }
+    }
+
+    private void searchRange(DocumentHandles handles, PageSearcher searcher, int startPage, int endPage) {
+        try {
+            PDDocument pageSource = handles.getDocument();
+            for (int pageNum = startPage; pageNum < endPage && !cancelled; pageNum++) {
+                pageSearched(pageNum, searcher.search(pageSource, pageNum));
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (RuntimeException e) {
+            fail(new IOException(e));
+        }
+    }
+
+    private void searchIndexRange(TextIndex index, SearchQuery.Compiled query, int startPage, int endPage) {
+        try {
+            for (int pageNum = startPage; pageNum < endPage && !cancelled; pageNum++) {
+                pageSearched(pageNum, query.find(index.getPage(pageNum), pageNum));
+            }
+        } catch (RuntimeException e) {
+            fail(new IOException(e));
+        }
+    }
+
+    private void pageSearched(int pageNum, List<PDFController.PDFSearchResult> results) {
+        synchronized (this) {
+            pageResults.set(pageNum, results);
+            pageDone[pageNum] = true;
+        }
+        drain();
+    }
+
+    // Hand over every page that is now contiguous with what has already been delivered
+    private synchronized void drain() {
+        if (cancelled || completion.isDone()) return;
+
+        List<PDFController.PDFSearchResult> batch = new ArrayList<>();
+        while (nextPage < pageCount && pageDone[nextPage]) {
+            batch.addAll(pageResults.get(nextPage));
+            pageResults.set(nextPage, null);
+            nextPage++;
+        }
+        totalResults += batch.size();
+
+        int pagesSearched = nextPage;
+        if (!batch.isEmpty()) {
+            callbackExecutor.execute(() -> {
+                if (!cancelled) listener.onResults(batch, pagesSearched, pageCount);
+            });
+        }
+        if (nextPage == pageCount) {
+            int total = totalResults;
+            completion.complete(total);
+            callbackExecutor.execute(() -> {
+                if (!cancelled) listener.onComplete(total);
+            });
+        }
+    }
+
+    private synchronized void fail(IOException e) {
+        if (cancelled || completion.isDone()) return;
+        cancelled = true;
+        chunks.forEach(chunk -> chunk.cancel(false));
+        completion.completeExceptionally(e);
+        callbackExecutor.execute(() -> listener.onError(e));
+    }
+
+    /**
+     * Stop searching; no further callbacks are made.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        chunks.forEach(chunk -> chunk.cancel(false));
+        completion.cancel(false);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    // Completes with the total number of results
+    public CompletableFuture<Integer> getCompletion() {
+        return completion;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.pdftool.controller;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Positional text of a whole document (one PageText per page), extracted once so
+ * searches don't have to run PDFTextStripper again. Searches match substrings,
+ * regexes and accent-folded text, which a term index can't answer, so each search
+ * scans the stored text; it is the PDF parsing and layout that the index saves.
+ */
+public class TextIndex {
+    private static final int FORMAT_VERSION = 2;
+
+    private final PageText[] pages;
+
+    private TextIndex(PageText[] pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * Extract every page in parallel, in page ranges, each worker reading through
+     * its own document handle.
+     */
+    public static TextIndex build(DocumentHandles handles, int pageCount, ExecutorService executor,
+                                  int chunkSize, ProgressListener listener) throws IOException {
+        PageText[] pages = new PageText[pageCount];
+        AtomicInteger pagesDone = new AtomicInteger();
+
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int firstPage = 0; firstPage < pageCount; firstPage += chunkSize) {
+            int startPage = firstPage;
+            int endPage = Math.min(pageCount, firstPage + chunkSize);
+            chunks.add(executor.submit(() -> {
+                PDDocument pageSource = handles.getDocument();
+                PageText.Extractor extractor = new PageText.Extractor();
+                for (int pageNum = startPage; pageNum < endPage; pageNum++) {
+                    pages[pageNum] = extractor.extract(pageSource, pageNum);
+                    listener.onProgress(pagesDone.incrementAndGet(), pageCount);
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            chunks.forEach(chunk -> chunk.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new IOException("Indexing interrupted", e);
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(false));
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        return new TextIndex(pages);
+    }
+
+    /**
+     * Every occurrence of searchTerm (case-insensitive substring), in page order.
+     */
+    public List<PDFController.PDFSearchResult> search(String searchTerm) {
+        return search(SearchQuery.plain(searchTerm));
+    }
+
+    public List<PDFController.PDFSearchResult> search(SearchQuery query) {
+        List<PDFController.PDFSearchResult> results = new ArrayList<>();
+        if (query.isEmpty()) return results;
+
+        SearchQuery.Compiled compiled = query.compile();
+        for (int pageNum = 0; pageNum < pages.length; pageNum++) {
+            results.addAll(compiled.find(pages[pageNum], pageNum));
+        }
+        return results;
+    }
+
+    public int getPageCount() {
+        return pages.length;
+    }
+
+    public PageText getPage(int pageNum) {
+        return pages[pageNum];
+    }
+
+    public void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(temp))))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(pages.length);
+            for (PageText page : pages) {
+                String text = page.getText();
+                out.writeInt(text.length());
+                out.writeChars(text);
+                for (float value : page.getBoxes()) {
+                    out.writeFloat(value);
+                }
+            }
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not write index to " + file);
+        }
+    }
+
+    /**
+     * Read an index written by save(), or return null if it is missing, stale or unreadable.
+     */
+    public static TextIndex load(File file, int expectedPages) {
+        if (!file.isFile()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != FORMAT_VERSION) return null;
+            int pageCount = in.readInt();
+            if (pageCount != expectedPages) return null;
+
+            PageText[] pages = new PageText[pageCount];
+            for (int pageNum = 0; pageNum < pageCount; pageNum++) {
+                int length = in.readInt();
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = in.readChar();
+                }
+                float[] boxes = new float[length * 4];
+                for (int i = 0; i < boxes.length; i++) {
+                    boxes[i] = in.readFloat();
+                }
+                pages[pageNum] = new PageText(new String(chars), boxes);
+            }
+            return new TextIndex(pages);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable text index " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
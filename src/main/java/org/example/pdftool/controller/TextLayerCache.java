@@ -0,0 +1,45 @@
+package org.example.pdftool.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Text layers of recently shown pages, for selection and copy. Each is built in
+ * the background the first time its page is shown; after that, hit-testing a
+ * drag is a scan of the cached boxes. The least recently used pages are dropped
+ * past MAX_PAGES. A layer is tens of kilobytes, small next to a page image, so
+ * a fixed page count bounds it well enough.
+ */
+class TextLayerCache {
+    private static final int MAX_PAGES = 128;
+
+    // Access ordered, so iteration runs from least to most recently used
+    private final Map<Integer, CompletableFuture<PageText>> layers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<PageText>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    // The page's layer, started with build if it isn't cached or already being built
+    synchronized CompletableFuture<PageText> get(int pageIndex, Supplier<CompletableFuture<PageText>> build) {
+        CompletableFuture<PageText> layer = layers.get(pageIndex);
+        if (layer == null || layer.isCompletedExceptionally()) {
+            layer = build.get();
+            layers.put(pageIndex, layer);
+        }
+        return layer;
+    }
+
+    // The page's layer if it is ready, otherwise null
+    synchronized PageText getIfReady(int pageIndex) {
+        CompletableFuture<PageText> layer = layers.get(pageIndex);
+        return layer != null && layer.isDone() && !layer.isCompletedExceptionally() ? layer.join() : null;
+    }
+
+    synchronized void clear() {
+        layers.clear();
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.pdftool.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.pdftool.DocumentLoad")
+@Label("Document Load")
+@Category("PDF Tool")
+public class DocumentLoadEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Pages")
+    public int pages;
+}
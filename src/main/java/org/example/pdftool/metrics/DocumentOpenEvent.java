@@ -0,0 +1,23 @@
+package org.example.pdftool.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("org.example.pdftool.DocumentOpen")
+@Label("Document Open")
+@Category("PDF Tool")
+@Description("From choosing a document to its first page on screen, committed once the page is at full quality")
+public class DocumentOpenEvent extends Event {
+    @Label("Time to First Pixel")
+    @Description("Until anything of the first page, even a low-resolution preview, was shown")
+    @Timespan(Timespan.MILLISECONDS)
+    public long firstPixelMillis;
+
+    @Label("Time to Full Quality")
+    @Timespan(Timespan.MILLISECONDS)
+    public long fullQualityMillis;
+}
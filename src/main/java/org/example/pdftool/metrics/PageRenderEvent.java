@@ -0,0 +1,37 @@
+package org.example.pdftool.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.pdftool.PageRender")
+@Label("Page Render")
+@Category("PDF Tool")
+@Description("A page or tile drawn by PDFBox into a pooled JavaFX image")
+public class PageRenderEvent extends Event {
+    @Label("Page")
+    public int page;
+
+    @Label("DPI")
+    public float dpi;
+
+    @Label("Profile")
+    @Description("fast while the user is scrolling or flipping pages, otherwise quality")
+    public String profile;
+
+    @Label("Tile")
+    @Description("Tile column and row, or -1,-1 for a whole page")
+    public String tile;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Conversion Nanos")
+    @Description("Preparing the image buffer, outside PDFBox")
+    public long conversionNanos;
+}
@@ -0,0 +1,19 @@
+package org.example.pdftool.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.pdftool.PageSearch")
+@Label("Page Search")
+@Category("PDF Tool")
+@Description("Text extracted from one page and searched")
+public class PageSearchEvent extends Event {
+    @Label("Page")
+    public int page;
+
+    @Label("Hits")
+    public int hits;
+}
@@ -0,0 +1,310 @@
+package org.example.pdftool.metrics;
+
+import org.example.pdftool.render.FxImagePool;
+import org.example.pdftool.render.PageImageCache;
+import org.example.pdftool.render.RenderProfile;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide timings and counters for loading, rendering and searching, fed by
+ * the controller and views from whichever thread does the work. Published over JMX
+ * (see PerformanceMetricsMXBean) and shown by the view's metrics overlay; each
+ * render, page search and load is also a JFR event, recorded only while a flight
+ * recording has the "PDF Tool" events enabled.
+ */
+public final class PerformanceMetrics implements PerformanceMetricsMXBean {
+    private static final PerformanceMetrics INSTANCE = new PerformanceMetrics();
+    public static final String OBJECT_NAME = "org.example.pdftool:type=PerformanceMetrics";
+
+    private final LongAdder documentsLoaded = new LongAdder();
+    private final LongAdder pagesRendered = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder conversionNanos = new LongAdder();
+    private final LongAdder pagesSearched = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder searchHits = new LongAdder();
+    private final Throughput fastRenders = new Throughput();
+    private final Throughput qualityRenders = new Throughput();
+
+    // Latest and worst cases, so a stall can be tied to a page
+    private volatile long lastLoadNanos;
+    private volatile long lastFirstPixelMillis;
+    private volatile long lastFullQualityMillis;
+    private volatile long lastSearchNanos;
+    private long lastRenderNanos;
+    private int lastRenderPage = -1;
+    private float lastRenderDpi;
+    private long slowestRenderNanos;
+    private int slowestRenderPage = -1;
+    private float slowestRenderDpi;
+
+    private volatile PageImageCache pageCache;
+
+    // Pixels drawn by PDFBox against the time it took, for comparing render profiles
+    private static final class Throughput {
+        private final LongAdder renders = new LongAdder();
+        private final LongAdder pixels = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void add(long pixels, long nanos) {
+            renders.increment();
+            this.pixels.add(pixels);
+            this.nanos.add(nanos);
+        }
+
+        double megapixelsPerSecond() {
+            long total = nanos.sum();
+            return total == 0 ? 0 : pixels.sum() * 1000.0 / total;
+        }
+
+        void reset() {
+            renders.reset();
+            pixels.reset();
+            nanos.reset();
+        }
+    }
+
+    private PerformanceMetrics() {
+    }
+
+    public static PerformanceMetrics get() {
+        return INSTANCE;
+    }
+
+    // Publish on the platform MBean server, e.g. for JConsole or VisualVM
+    public static void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // The cache whose hit ratio and size are reported
+    public void setPageCache(PageImageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    public void recordLoad(long nanos) {
+        documentsLoaded.increment();
+        lastLoadNanos = nanos;
+    }
+
+    // Time from starting an open until its first page was shown at all, then at full quality
+    public void recordFirstPixel(long millis) {
+        lastFirstPixelMillis = millis;
+    }
+
+    public void recordFullQuality(long firstPixelMillis, long fullQualityMillis) {
+        lastFullQualityMillis = fullQualityMillis;
+        DocumentOpenEvent event = new DocumentOpenEvent();
+        if (event.shouldCommit()) {
+            event.firstPixelMillis = firstPixelMillis;
+            event.fullQualityMillis = fullQualityMillis;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param pixels          width times height of the page or tile drawn
+     * @param renderNanos     time spent in PDFBox
+     * @param conversionNanos time spent getting the image buffer ready for it and JavaFX
+     */
+    public void recordRender(RenderProfile profile, int pageIndex, float dpi, long pixels, long renderNanos,
+                             long conversionNanos) {
+        pagesRendered.increment();
+        (profile == RenderProfile.FAST ? fastRenders : qualityRenders).add(pixels, renderNanos);
+        this.renderNanos.add(renderNanos);
+        this.conversionNanos.add(conversionNanos);
+        synchronized (this) {
+            lastRenderNanos = renderNanos;
+            lastRenderPage = pageIndex;
+            lastRenderDpi = dpi;
+            if (renderNanos > slowestRenderNanos) {
+                slowestRenderNanos = renderNanos;
+                slowestRenderPage = pageIndex;
+                slowestRenderDpi = dpi;
+            }
+        }
+    }
+
+    public void recordSearchPage(long nanos, int hits) {
+        pagesSearched.increment();
+        searchNanos.add(nanos);
+        searchHits.add(hits);
+    }
+
+    // A whole search, from starting it to its last result
+    public void recordSearch(long nanos) {
+        lastSearchNanos = nanos;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double average(LongAdder total, LongAdder count) {
+        long n = count.sum();
+        return n == 0 ? 0 : millis(total.sum()) / n;
+    }
+
+    @Override
+    public long getDocumentsLoaded() {
+        return documentsLoaded.sum();
+    }
+
+    @Override
+    public double getLastLoadMillis() {
+        return millis(lastLoadNanos);
+    }
+
+    @Override
+    public long getLastTimeToFirstPixelMillis() {
+        return lastFirstPixelMillis;
+    }
+
+    @Override
+    public long getLastTimeToFullQualityMillis() {
+        return lastFullQualityMillis;
+    }
+
+    @Override
+    public long getPagesRendered() {
+        return pagesRendered.sum();
+    }
+
+    @Override
+    public double getAverageRenderMillis() {
+        return average(renderNanos, pagesRendered);
+    }
+
+    @Override
+    public double getAverageConversionMillis() {
+        return average(conversionNanos, pagesRendered);
+    }
+
+    @Override
+    public synchronized double getLastRenderMillis() {
+        return millis(lastRenderNanos);
+    }
+
+    @Override
+    public synchronized int getLastRenderPage() {
+        return lastRenderPage;
+    }
+
+    @Override
+    public synchronized float getLastRenderDpi() {
+        return lastRenderDpi;
+    }
+
+    @Override
+    public synchronized double getSlowestRenderMillis() {
+        return millis(slowestRenderNanos);
+    }
+
+    @Override
+    public synchronized int getSlowestRenderPage() {
+        return slowestRenderPage;
+    }
+
+    @Override
+    public synchronized float getSlowestRenderDpi() {
+        return slowestRenderDpi;
+    }
+
+    @Override
+    public long getFastRenders() {
+        return fastRenders.renders.sum();
+    }
+
+    @Override
+    public double getFastRenderMegapixelsPerSecond() {
+        return fastRenders.megapixelsPerSecond();
+    }
+
+    @Override
+    public long getQualityRenders() {
+        return qualityRenders.renders.sum();
+    }
+
+    @Override
+    public double getQualityRenderMegapixelsPerSecond() {
+        return qualityRenders.megapixelsPerSecond();
+    }
+
+    @Override
+    public long getPagesSearched() {
+        return pagesSearched.sum();
+    }
+
+    @Override
+    public double getAverageSearchPageMillis() {
+        return average(searchNanos, pagesSearched);
+    }
+
+    @Override
+    public long getSearchHits() {
+        return searchHits.sum();
+    }
+
+    @Override
+    public double getHitsPerPage() {
+        long pages = pagesSearched.sum();
+        return pages == 0 ? 0 : (double) searchHits.sum() / pages;
+    }
+
+    @Override
+    public double getLastSearchMillis() {
+        return millis(lastSearchNanos);
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        PageImageCache cache = pageCache;
+        return cache != null ? cache.getHitRatio() : 0;
+    }
+
+    @Override
+    public long getCacheBytesUsed() {
+        PageImageCache cache = pageCache;
+        return cache != null ? cache.getBytesUsed() : 0;
+    }
+
+    @Override
+    public long getPageImageBytes() {
+        return FxImagePool.shared().getLiveBytes();
+    }
+
+    @Override
+    public void resetCounters() {
+        documentsLoaded.reset();
+        pagesRendered.reset();
+        renderNanos.reset();
+        conversionNanos.reset();
+        fastRenders.reset();
+        qualityRenders.reset();
+        pagesSearched.reset();
+        searchNanos.reset();
+        searchHits.reset();
+        lastLoadNanos = 0;
+        lastFirstPixelMillis = 0;
+        lastFullQualityMillis = 0;
+        lastSearchNanos = 0;
+        synchronized (this) {
+            lastRenderNanos = 0;
+            lastRenderPage = -1;
+            lastRenderDpi = 0;
+            slowestRenderNanos = 0;
+            slowestRenderPage = -1;
+            slowestRenderDpi = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.pdftool.metrics;
+
+/**
+ * What PerformanceMetrics publishes over JMX, under
+ * org.example.pdftool:type=PerformanceMetrics. Times are in milliseconds.
+ */
+public interface PerformanceMetricsMXBean {
+    long getDocumentsLoaded();
+
+    double getLastLoadMillis();
+
+    long getLastTimeToFirstPixelMillis();
+
+    long getLastTimeToFullQualityMillis();
+
+    long getPagesRendered();
+
+    double getAverageRenderMillis();
+
+    double getAverageConversionMillis();
+
+    double getLastRenderMillis();
+
+    int getLastRenderPage();
+
+    float getLastRenderDpi();
+
+    double getSlowestRenderMillis();
+
+    int getSlowestRenderPage();
+
+    float getSlowestRenderDpi();
+
+    long getFastRenders();
+
+    double getFastRenderMegapixelsPerSecond();
+
+    long getQualityRenders();
+
+    double getQualityRenderMegapixelsPerSecond();
+
+    long getPagesSearched();
+
+    double getAverageSearchPageMillis();
+
+    long getSearchHits();
+
+    double getHitsPerPage();
+
+    double getLastSearchMillis();
+
+    double getCacheHitRatio();
+
+    long getCacheBytesUsed();
+
+    long getPageImageBytes();
+
+    void resetCounters();
+}
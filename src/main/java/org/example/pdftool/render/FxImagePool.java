@@ -0,0 +1,223 @@
+package org.example.pdftool.render;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Render target shared by PDFBox and JavaFX. Each buffer is a TYPE_INT_ARGB_PRE
+ * BufferedImage whose int[] is also wrapped by a JavaFX PixelBuffer, so what Java2D
+ * draws is already the JavaFX image: no SwingFXUtils conversion, no second copy.
+ *
+ * Buffers are recycled once nothing can see them any more: they have left the page
+ * cache, no ImageView shows them, and the render that produced them has handed them
+ * over (its "hold" is released). Only then can a later render draw into them again.
+ * The free list is capped; past the cap the buffers freed longest ago are dropped,
+ * so sizes nobody asks for again don't linger.
+ */
+public class FxImagePool {
+    private static final FxImagePool SHARED = new FxImagePool(128L * 1024 * 1024);
+
+    @FunctionalInterface
+    public interface Painter {
+        void paint(Graphics2D g2d) throws IOException;
+    }
+
+    private static class Buffer {
+        final BufferedImage bufferedImage;
+        final PixelBuffer<IntBuffer> pixelBuffer;
+        final WritableImage image;
+        int holds = 0;
+        int displays = 0;
+        boolean cached = false;
+        // Redrawn since JavaFX last saw it, so its texture must be refreshed before display
+        boolean stale = false;
+        // Waiting in the free list
+        boolean pooled = false;
+
+        Buffer(int width, int height) {
+            bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            int[] pixels = ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData();
+            pixelBuffer = new PixelBuffer<>(width, height, IntBuffer.wrap(pixels), PixelFormat.getIntArgbPreInstance());
+            image = new WritableImage(pixelBuffer);
+        }
+
+        long bytes() {
+            return (long) bufferedImage.getWidth() * bufferedImage.getHeight() * 4;
+        }
+
+        boolean idle() {
+            return holds == 0 && displays == 0 && !cached;
+        }
+    }
+
+    // Every buffer in use or in the free list; a buffer leaves when it is dropped
+    private final Map<Image, Buffer> buffers = new IdentityHashMap<>();
+    private final Map<Long, Deque<Buffer>> free = new HashMap<>();
+    // The same buffers, freed longest ago first
+    private final Deque<Buffer> freeOrder = new ArrayDeque<>();
+    private final long maxFreeBytes;
+    private long freeBytes = 0;
+    private long allocations = 0;
+    private long reuses = 0;
+
+    public FxImagePool(long maxFreeBytes) {
+        this.maxFreeBytes = maxFreeBytes;
+    }
+
+    public static FxImagePool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Draw into a recycled or new white width x height buffer. The caller holds the
+     * result until it calls release(), typically after it has been displayed.
+     */
+    public WritableImage draw(int width, int height, Painter painter) throws IOException {
+        Buffer buffer = acquire(width, height);
+        Graphics2D g2d = buffer.bufferedImage.createGraphics();
+        try {
+            g2d.setBackground(Color.WHITE);
+            g2d.clearRect(0, 0, width, height);
+            painter.paint(g2d);
+        } catch (IOException | RuntimeException e) {
+            release(buffer.image);
+            throw e;
+        } finally {
+            g2d.dispose();
+        }
+        return buffer.image;
+    }
+
+    private synchronized Buffer acquire(int width, int height) {
+        Deque<Buffer> candidates = free.get(sizeKey(width, height));
+        Buffer buffer = candidates != null ? candidates.poll() : null;
+        if (buffer != null) {
+            freeBytes -= buffer.bytes();
+            freeOrder.remove(buffer);
+            buffer.pooled = false;
+            buffer.stale = true;
+            reuses++;
+        } else {
+            buffer = new Buffer(width, height);
+            buffers.put(buffer.image, buffer);
+            allocations++;
+        }
+        buffer.holds = 1;
+        return buffer;
+    }
+
+    /**
+     * Show image (or nothing) in view, on the FX thread, keeping display counts in step.
+     */
+    public synchronized void show(ImageView view, Image image) {
+        Image previous = view.getImage();
+        if (previous == image) return;
+
+        Buffer next = image != null ? buffers.get(image) : null;
+        if (next != null) {
+            if (next.stale) {
+                next.pixelBuffer.updateBuffer(pixels -> null);
+                next.stale = false;
+            }
+            next.displays++;
+        }
+        view.setImage(image);
+
+        Buffer old = previous != null ? buffers.get(previous) : null;
+        if (old != null) {
+            old.displays--;
+            recycleIfIdle(old);
+        }
+    }
+
+    public synchronized void release(Image image) {
+        Buffer buffer = buffers.get(image);
+        if (buffer != null && buffer.holds > 0) {
+            buffer.holds--;
+            recycleIfIdle(buffer);
+        }
+    }
+
+    synchronized void cached(Image image) {
+        Buffer buffer = buffers.get(image);
+        if (buffer != null) {
+            buffer.cached = true;
+        }
+    }
+
+    synchronized void evicted(Image image) {
+        Buffer buffer = buffers.get(image);
+        if (buffer != null) {
+            buffer.cached = false;
+            recycleIfIdle(buffer);
+        }
+    }
+
+    private void recycleIfIdle(Buffer buffer) {
+        if (!buffer.idle() || buffer.pooled) return;
+        if (buffer.bytes() > maxFreeBytes) {
+            drop(buffer);
+            return;
+        }
+        while (freeBytes + buffer.bytes() > maxFreeBytes) {
+            Buffer oldest = freeOrder.poll();
+            Deque<Buffer> sameSize = free.get(sizeKey(oldest));
+            sameSize.remove(oldest);
+            if (sameSize.isEmpty()) {
+                free.remove(sizeKey(oldest));
+            }
+            freeBytes -= oldest.bytes();
+            drop(oldest);
+        }
+        free.computeIfAbsent(sizeKey(buffer), key -> new ArrayDeque<>()).push(buffer);
+        freeOrder.addLast(buffer);
+        buffer.pooled = true;
+        freeBytes += buffer.bytes();
+    }
+
+    // Forget a buffer for good; once nothing else references its image it is collected
+    private void drop(Buffer buffer) {
+        buffer.pooled = false;
+        buffers.remove(buffer.image);
+    }
+
+    private static long sizeKey(Buffer buffer) {
+        return sizeKey(buffer.bufferedImage.getWidth(), buffer.bufferedImage.getHeight());
+    }
+
+    private static long sizeKey(int width, int height) {
+        return ((long) width << 32) | (height & 0xffffffffL);
+    }
+
+    public synchronized long getAllocations() {
+        return allocations;
+    }
+
+    public synchronized long getReuses() {
+        return reuses;
+    }
+
+    // Pixels of every buffer still reachable: shown, cached, held or waiting for reuse
+    public synchronized long getLiveBytes() {
+        long bytes = 0;
+        for (Buffer buffer : buffers.values()) {
+            bytes += buffer.bytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.pdftool.render;
+
+import javafx.scene.image.WritableImage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Least-recently-used cache of rendered pages, bounded by an approximate
+ * byte budget (width x height x 4 per image) rather than an entry count.
+ * Evicted images go back to the image pool once nothing is showing them.
+ *
+ * One cache is shared by every open document. When it is over budget, pages of
+ * documents other than the active one are evicted first, so background tabs give
+ * their memory up to the one being looked at.
+ */
+public class PageImageCache {
+    // Whole pages use -1 for the tile column and row
+    public record PageKey(int documentId, int pageIndex, float dpi, int tileColumn, int tileRow) {
+        public PageKey(int documentId, int pageIndex, float dpi) {
+            this(documentId, pageIndex, dpi, -1, -1);
+        }
+    }
+
+    private static final AtomicInteger nextDocumentId = new AtomicInteger();
+
+    private final LinkedHashMap<PageKey, WritableImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final FxImagePool imagePool = FxImagePool.shared();
+    private long byteBudget;
+    private long bytesUsed = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private int activeDocument = -1;
+
+    public PageImageCache(long byteBudget) {
+        this.byteBudget = byteBudget;
+    }
+
+    public PageImageCache() {
+        this(defaultByteBudget());
+    }
+
+    // -Dpdftool.pageCacheBytes=..., otherwise a quarter of the heap capped at 512 MB
+    public static long defaultByteBudget() {
+        long fallback = Math.min(Runtime.getRuntime().maxMemory() / 4, 512L * 1024 * 1024);
+        return Long.getLong("pdftool.pageCacheBytes", fallback);
+    }
+
+    // A fresh id for each document loaded, so its pages never collide with another's
+    public static int newDocumentId() {
+        return nextDocumentId.incrementAndGet();
+    }
+
+    public static long sizeOf(WritableImage image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    public synchronized WritableImage get(PageKey key) {
+        WritableImage image = images.get(key);
+        if (image != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return image;
+    }
+
+    public synchronized boolean contains(PageKey key) {
+        return images.containsKey(key);
+    }
+
+    public synchronized void put(PageKey key, WritableImage image) {
+        long size = sizeOf(image);
+        if (size > byteBudget) return;
+
+        WritableImage previous = images.put(key, image);
+        imagePool.cached(image);
+        if (previous != null && previous != image) {
+            bytesUsed -= sizeOf(previous);
+            imagePool.evicted(previous);
+        } else if (previous != null) {
+            bytesUsed -= size;
+        }
+        bytesUsed += size;
+        evictToBudget();
+    }
+
+    public synchronized void setByteBudget(long byteBudget) {
+        this.byteBudget = byteBudget;
+        evictToBudget();
+    }
+
+    // Pages of the document being viewed stay longest
+    public synchronized void setActiveDocument(int documentId) {
+        activeDocument = documentId;
+    }
+
+    private void evictToBudget() {
+        evict(false);
+        evict(true);
+    }
+
+    // Least recently used first, either only inactive documents' pages or everything
+    private void evict(boolean includeActive) {
+        Iterator<Map.Entry<PageKey, WritableImage>> iterator = images.entrySet().iterator();
+        while (bytesUsed > byteBudget && iterator.hasNext()) {
+            Map.Entry<PageKey, WritableImage> entry = iterator.next();
+            if (!includeActive && entry.getKey().documentId() == activeDocument) continue;
+            bytesUsed -= sizeOf(entry.getValue());
+            imagePool.evicted(entry.getValue());
+            iterator.remove();
+        }
+    }
+
+    // Drop every page of a document, e.g. when it is closed
+    public synchronized void evictDocument(int documentId) {
+        Iterator<Map.Entry<PageKey, WritableImage>> iterator = images.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<PageKey, WritableImage> entry = iterator.next();
+            if (entry.getKey().documentId() != documentId) continue;
+            bytesUsed -= sizeOf(entry.getValue());
+            imagePool.evicted(entry.getValue());
+            iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        images.values().forEach(imagePool::evicted);
+        images.clear();
+        bytesUsed = 0;
+    }
+
+    public synchronized long getByteBudget() {
+        return byteBudget;
+    }
+
+    public synchronized long getBytesUsed() {
+        return bytesUsed;
+    }
+
+    public synchronized long getBytesUsed(int documentId) {
+        long used = 0;
+        for (Map.Entry<PageKey, WritableImage> entry : images.entrySet()) {
+            if (entry.getKey().documentId() == documentId) {
+                used += sizeOf(entry.getValue());
+            }
+        }
+        return used;
+    }
+
+    public synchronized int size() {
+        return images.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.pdftool.render;
+
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.awt.RenderingHints;
+
+/**
+ * How PDFBox draws a page: fast, for frames that only live while the user is
+ * flipping pages or scrolling, or full quality, for what is shown once the view
+ * settles and for everything that is cached.
+ *
+ * The fast profile lets PDFBox subsample large images (drawing every nth pixel
+ * instead of the whole image scaled down), turns anti-aliasing off and uses
+ * nearest-neighbour image scaling. The quality profile is PDFBox's own default.
+ *
+ * Settings come from system properties, per profile:
+ * -Dpdftool.render.fast.subsampling=true|false, -Dpdftool.render.fast.antialias=true|false,
+ * -Dpdftool.render.fast.interpolation=nearest|bilinear|bicubic,
+ * and the same under pdftool.render.quality.
+ */
+public final class RenderProfile {
+    public static final RenderProfile FAST = fromSystemProperties("fast", true, false, "nearest");
+    public static final RenderProfile QUALITY = fromSystemProperties("quality", false, true, "bicubic");
+
+    private final String name;
+    private final boolean subsampling;
+    private final boolean antialias;
+    private final RenderingHints hints;
+
+    public RenderProfile(String name, boolean subsampling, boolean antialias, Object interpolation) {
+        this.name = name;
+        this.subsampling = subsampling;
+        this.antialias = antialias;
+        hints = new RenderingHints(RenderingHints.KEY_ANTIALIASING,
+                antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        hints.put(RenderingHints.KEY_INTERPOLATION, interpolation);
+        hints.put(RenderingHints.KEY_RENDERING,
+                antialias ? RenderingHints.VALUE_RENDER_QUALITY : RenderingHints.VALUE_RENDER_SPEED);
+    }
+
+    private static RenderProfile fromSystemProperties(String name, boolean subsampling, boolean antialias,
+                                                      String interpolation) {
+        String prefix = "pdftool.render." + name + ".";
+        return new RenderProfile(name,
+                booleanProperty(prefix + "subsampling", subsampling),
+                booleanProperty(prefix + "antialias", antialias),
+                interpolation(prefix + "interpolation", System.getProperty(prefix + "interpolation", interpolation)));
+    }
+
+    // Boolean.getBoolean can only default to false
+    private static boolean booleanProperty(String key, boolean defaultValue) {
+        String configured = System.getProperty(key);
+        return configured != null ? Boolean.parseBoolean(configured.trim()) : defaultValue;
+    }
+
+    private static Object interpolation(String key, String configured) {
+        return switch (configured.trim().toLowerCase()) {
+            case "nearest" -> RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+            case "bilinear" -> RenderingHints.VALUE_INTERPOLATION_BILINEAR;
+            case "bicubic" -> RenderingHints.VALUE_INTERPOLATION_BICUBIC;
+            default -> {
+                System.err.println("Unknown " + key + " '" + configured + "', using bicubic");
+                yield RenderingHints.VALUE_INTERPOLATION_BICUBIC;
+            }
+        };
+    }
+
+    // FAST or QUALITY by name, e.g. from a benchmark parameter
+    public static RenderProfile named(String name) {
+        return FAST.name.equalsIgnoreCase(name) ? FAST : QUALITY;
+    }
+
+    /**
+     * Set renderer up to draw with this profile. Renderers belong to one thread
+     * (see DocumentHandles), so switching profiles between renders is safe.
+     */
+    public void apply(PDFRenderer renderer) {
+        renderer.setSubsamplingAllowed(subsampling);
+        // PDFBox adds these to the target Graphics2D's own hints for each page
+        renderer.setRenderingHints(hints);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isSubsampling() {
+        return subsampling;
+    }
+
+    public boolean isAntialias() {
+        return antialias;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.pdftool.render;
+
+/**
+ * Picks render DPIs from what is actually on screen. DPIs are snapped to
+ * quarter-octave steps so small zoom changes reuse the same cached image.
+ */
+public final class RenderResolution {
+    public static final float PREVIEW_DPI = 36;
+    public static final float MIN_DPI = 36;
+    public static final float MAX_DPI = 600;
+
+    private RenderResolution() {
+    }
+
+    /**
+     * @param displayedPixels size of the page on screen along one axis, in layout pixels
+     * @param pagePoints      size of the page along the same axis, in PDF points
+     * @param outputScale     window output scale (2.0 on most HiDPI screens)
+     */
+    public static float targetDpi(double displayedPixels, double pagePoints, double outputScale) {
+        if (displayedPixels <= 0 || pagePoints <= 0) return snap(144);
+        return snap(displayedPixels * outputScale / pagePoints * 72.0);
+    }
+
+    // Largest quarter-octave DPI at which the whole page stays within maxPixels
+    public static float maxDpiForPixels(double pageWidthPoints, double pageHeightPoints, long maxPixels) {
+        double dpi = Math.sqrt(maxPixels / (pageWidthPoints * pageHeightPoints)) * 72.0;
+        double steps = Math.floor(Math.log(dpi / 72.0) / Math.log(2) * 4 + 1e-9);
+        return (float) Math.max(MIN_DPI, Math.min(MAX_DPI, Math.floor(72.0 * Math.pow(2, steps / 4.0))));
+    }
+
+    public static float snap(double dpi) {
+        double clamped = Math.max(MIN_DPI, Math.min(MAX_DPI, dpi));
+        double steps = Math.ceil(Math.log(clamped / 72.0) / Math.log(2) * 4 - 1e-9);
+        return Math.min(MAX_DPI, Math.round(72.0 * Math.pow(2, steps / 4.0)));
+    }
+}
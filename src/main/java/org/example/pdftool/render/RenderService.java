@@ -0,0 +1,171 @@
+package org.example.pdftool.render;
+
+import javafx.application.Platform;
+import javafx.scene.image.WritableImage;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs page renders on a small pool of background threads so the JavaFX
+ * thread never waits on PDFBox. Only the newest request gets its image
+ * handed back; anything it supersedes is cancelled or dropped.
+ *
+ * Speculative (prefetch) work runs on its own low-priority thread so it
+ * never occupies a worker that a visible page could be using.
+ *
+ * Workers are never interrupted: PDFBox reads through a FileChannel, which
+ * is closed for good if its thread is interrupted mid-read.
+ */
+public class RenderService {
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor prefetchExecutor;
+    private final AtomicLong latestRequest = new AtomicLong();
+    private final AtomicLong prefetchGeneration = new AtomicLong();
+    private Future<?> pending;
+
+    public RenderService(int workers) {
+        // Worker threads are kept alive: each one holds its own document handle
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("pdf-render-", Thread.NORM_PRIORITY));
+        prefetchExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("pdf-prefetch-", Thread.MIN_PRIORITY));
+    }
+
+    public RenderService() {
+        this(defaultWorkerCount());
+    }
+
+    public static int defaultWorkerCount() {
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    private static ThreadFactory threadFactory(String prefix, int priority) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+
+    /**
+     * Render a page in the background and pass the result to onRendered on the
+     * FX thread, unless a newer request has been submitted in the meantime.
+     * Any queued prefetch work is dropped so it can't compete with this request.
+     */
+    public void submit(Callable<WritableImage> job, Consumer<WritableImage> onRendered) {
+        submit(null, job, onRendered);
+    }
+
+    /**
+     * As above, but a cheap preview is rendered and shown first. The full job
+     * only runs if nothing newer has been requested by the time the preview is done.
+     */
+    public synchronized void submit(Callable<WritableImage> preview, Callable<WritableImage> job,
+                                    Consumer<WritableImage> onRendered) {
+        long request = latestRequest.incrementAndGet();
+        cancelPrefetch();
+        if (pending != null) {
+            pending.cancel(false);
+        }
+
+        pending = executor.submit(() -> {
+            try {
+                if (preview != null) {
+                    deliver(request, preview, onRendered);
+                }
+                deliver(request, job, onRendered);
+            } catch (Exception e) {
+                if (request == latestRequest.get()) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    private void deliver(long request, Callable<WritableImage> job, Consumer<WritableImage> onRendered) throws Exception {
+        if (request != latestRequest.get()) return;
+        WritableImage image = job.call();
+        if (image == null) return;
+        Platform.runLater(() -> {
+            if (request == latestRequest.get()) {
+                onRendered.accept(image);
+            } else {
+                // Superseded: nobody will show it, so let its buffer be reused
+                FxImagePool.shared().release(image);
+            }
+        });
+    }
+
+    /**
+     * Render independently of the single "current page" request above, for views
+     * that show several pages at once. The caller owns the returned Future and
+     * should cancel it when the page scrolls out of view.
+     */
+    public Future<?> render(Callable<WritableImage> job, Consumer<WritableImage> onRendered) {
+        return executor.submit(() -> {
+            try {
+                WritableImage image = job.call();
+                if (image != null) {
+                    Platform.runLater(() -> onRendered.accept(image));
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Queue speculative work at low priority. It is skipped if a visible
+     * request or a newer round of prefetching arrives before it starts.
+     */
+    public void prefetch(Callable<?> job) {
+        long generation = prefetchGeneration.get();
+        prefetchExecutor.execute(() -> {
+            if (generation != prefetchGeneration.get()) return;
+            try {
+                job.call();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public void cancelPrefetch() {
+        prefetchGeneration.incrementAndGet();
+        prefetchExecutor.getQueue().clear();
+    }
+
+    // True when no page render or prefetch is running or queued
+    public boolean isIdle() {
+        return executor.getActiveCount() == 0 && executor.getQueue().isEmpty()
+                && prefetchExecutor.getActiveCount() == 0 && prefetchExecutor.getQueue().isEmpty();
+    }
+
+    /**
+     * Drop any in-flight request, e.g. when a new document is opened.
+     */
+    public synchronized void cancelAll() {
+        latestRequest.incrementAndGet();
+        cancelPrefetch();
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdown();
+        prefetchExecutor.shutdown();
+    }
+}
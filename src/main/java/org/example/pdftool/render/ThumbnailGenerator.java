@@ -0,0 +1,279 @@
+package org.example.pdftool.render;
+
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.example.pdftool.controller.DocumentHandles;
+import org.example.pdftool.controller.FileFingerprint;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+
+/**
+ * Produces small page thumbnails on a single low-priority thread and keeps them as
+ * PNGs in ~/.pdftool/thumbnails/<file fingerprint>/, so a document opened again
+ * has every thumbnail straight away. The least recently used documents' thumbnails
+ * are deleted once the folder passes pdftool.thumbnailCacheBytes (64 MB by default).
+ *
+ * New thumbnails are only rendered while the RenderService is idle, so they never
+ * hold up the pages being viewed. Thumbnails already on disk are read without waiting.
+ */
+public class ThumbnailGenerator {
+    public static final int THUMBNAIL_WIDTH = 120;
+    private static final int MEMORY_CACHE_ENTRIES = 256;
+    private static final long IDLE_POLL_MILLIS = 25;
+    private static final long DISK_CACHE_BYTES = Long.getLong("pdftool.thumbnailCacheBytes", 64L * 1024 * 1024);
+    // As a job's page: queue every page that isn't on disk yet
+    private static final int MISSING_PAGES = -1;
+
+    private record Job(long generation, int pageIndex) {
+    }
+
+    private record Session(long generation, DocumentHandles handles, int pageCount) {
+    }
+
+    private final RenderService foreground;
+    private final LinkedBlockingDeque<Job> queue = new LinkedBlockingDeque<>();
+    private final Map<Integer, Image> thumbnails = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest) {
+            return size() > MEMORY_CACHE_ENTRIES;
+        }
+    };
+    // Callbacks are added and run on the FX thread; the worker only checks for them
+    private final Map<Integer, List<Consumer<Image>>> waiting = new ConcurrentHashMap<>();
+    private volatile Session session;
+    private long generation = 0;
+    // Worker thread only: where the current session's thumbnails are kept, or null
+    private File directory;
+    private long directoryGeneration = -1;
+    private volatile boolean running = true;
+
+    public ThumbnailGenerator(RenderService foreground) {
+        this.foreground = foreground;
+        Thread worker = new Thread(this::run, "pdf-thumbnails");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * Start on a new document. Pages with no thumbnail on disk are queued so the
+     * disk cache fills up in the background; pages asked for with request() jump
+     * the queue. Opening the document already being worked on changes nothing.
+     */
+    public synchronized void open(DocumentHandles handles, int pageCount) {
+        Session current = session;
+        if (current != null && current.handles() == handles) return;
+
+        session = new Session(++generation, handles, pageCount);
+        queue.clear();
+        synchronized (thumbnails) {
+            thumbnails.clear();
+        }
+        waiting.clear();
+        // The worker looks on disk for what is missing, off the FX thread
+        queue.offerLast(new Job(generation, MISSING_PAGES));
+    }
+
+    // Stop, but only if still working on handles' document (e.g. its tab is being closed)
+    public synchronized void close(DocumentHandles handles) {
+        Session current = session;
+        if (current != null && current.handles() == handles) {
+            close();
+        }
+    }
+
+    public synchronized void close() {
+        session = null;
+        generation++;
+        queue.clear();
+        waiting.clear();
+    }
+
+    /**
+     * Call onReady on the FX thread with the page's thumbnail, straight away if it
+     * is in memory. Callers should check the page is still wanted when it arrives.
+     */
+    public void request(int pageIndex, Consumer<Image> onReady) {
+        Image thumbnail;
+        synchronized (thumbnails) {
+            thumbnail = thumbnails.get(pageIndex);
+        }
+        if (thumbnail != null) {
+            onReady.accept(thumbnail);
+            return;
+        }
+
+        Session current = session;
+        if (current == null) return;
+        waiting.computeIfAbsent(pageIndex, page -> new ArrayList<>()).add(onReady);
+        queue.offerFirst(new Job(current.generation(), pageIndex));
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Job job = queue.take();
+                Session current = session;
+                if (current == null || job.generation() != current.generation()) continue;
+                if (job.pageIndex() == MISSING_PAGES) {
+                    queueMissing(current);
+                } else {
+                    produce(current, job.pageIndex());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                // Most likely the document was closed mid-render
+                if (running && session != null) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    // Queue the pages that have no thumbnail on disk, behind anything already requested
+    private void queueMissing(Session current) {
+        File directory = directory(current);
+        String[] names = directory != null ? directory.list() : null;
+        Set<String> onDisk = names != null ? new HashSet<>(Arrays.asList(names)) : Set.of();
+        for (int pageIndex = 0; pageIndex < current.pageCount(); pageIndex++) {
+            if (!onDisk.contains(fileName(pageIndex))) {
+                queue.offerLast(new Job(current.generation(), pageIndex));
+            }
+        }
+    }
+
+    private void produce(Session current, int pageIndex) throws IOException, InterruptedException {
+        boolean inMemory;
+        synchronized (thumbnails) {
+            inMemory = thumbnails.containsKey(pageIndex);
+        }
+        if (inMemory) {
+            deliver(current, pageIndex, null);
+            return;
+        }
+
+        File file = thumbnailFile(current, pageIndex);
+        boolean wanted = waiting.containsKey(pageIndex);
+        BufferedImage image = null;
+        if (file != null && file.isFile()) {
+            // Already on disk; only bother reading it if something is waiting for it
+            if (!wanted) return;
+            image = ImageIO.read(file);
+        }
+        if (image == null) {
+            if (!awaitForegroundIdle(current)) return;
+            image = render(current, pageIndex);
+            if (file != null) {
+                write(image, file);
+            }
+        }
+        deliver(current, pageIndex, SwingFXUtils.toFXImage(image, null));
+    }
+
+    // Wait until no page render is running or queued; false if the document changed meanwhile
+    private boolean awaitForegroundIdle(Session current) throws InterruptedException {
+        while (!foreground.isIdle()) {
+            if (session != current || !running) return false;
+            Thread.sleep(IDLE_POLL_MILLIS);
+        }
+        return session == current;
+    }
+
+    private static BufferedImage render(Session current, int pageIndex) throws IOException {
+        PDPage page = current.handles().getDocument().getPage(pageIndex);
+        PDRectangle cropBox = page.getCropBox();
+        float width = page.getRotation() % 180 != 0 ? cropBox.getHeight() : cropBox.getWidth();
+        return current.handles().getRenderer().renderImage(pageIndex, THUMBNAIL_WIDTH / width, ImageType.RGB);
+    }
+
+    private File thumbnailFile(Session current, int pageIndex) {
+        File directory = directory(current);
+        return directory == null ? null : new File(directory, fileName(pageIndex));
+    }
+
+    private static String fileName(int pageIndex) {
+        return pageIndex + ".png";
+    }
+
+    // The session's folder of thumbnails, or null if there is none
+    private File directory(Session current) {
+        if (directoryGeneration != current.generation()) {
+            directoryGeneration = current.generation();
+            try {
+                File cache = FileFingerprint.cacheDirectory("thumbnails");
+                directory = new File(cache, FileFingerprint.of(current.handles().getFile()));
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    directory = null;
+                } else {
+                    // Most recently used, so the trim takes other documents' thumbnails first
+                    FileFingerprint.touch(directory);
+                    FileFingerprint.trimCache(cache, DISK_CACHE_BYTES);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                directory = null;
+            }
+        }
+        return directory;
+    }
+
+    // Write then rename, so a half-written file is never mistaken for a thumbnail
+    private static void write(BufferedImage image, File file) {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            ImageIO.write(image, "png", tmp);
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+        }
+    }
+
+    private void deliver(Session current, int pageIndex, Image thumbnail) {
+        if (thumbnail != null) {
+            synchronized (thumbnails) {
+                thumbnails.put(pageIndex, thumbnail);
+            }
+        }
+        Platform.runLater(() -> {
+            if (session != current) return;
+            Image image = thumbnail;
+            if (image == null) {
+                synchronized (thumbnails) {
+                    image = thumbnails.get(pageIndex);
+                }
+            }
+            List<Consumer<Image>> callbacks = waiting.remove(pageIndex);
+            if (image == null || callbacks == null) return;
+            for (Consumer<Image> callback : callbacks) {
+                callback.accept(image);
+            }
+        });
+    }
+
+    public void shutdown() {
+        running = false;
+        close();
+        queue.offer(new Job(-1, -1));
+    }
+}
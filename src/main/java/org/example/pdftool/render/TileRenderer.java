@@ -0,0 +1,104 @@
+package org.example.pdftool.render;
+
+import javafx.scene.image.WritableImage;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.example.pdftool.metrics.PageRenderEvent;
+import org.example.pdftool.metrics.PerformanceMetrics;
+
+import java.io.IOException;
+
+/**
+ * Renders fixed-size square tiles of a page, so a huge page at high zoom only
+ * ever needs the handful of tiles under the viewport in memory. Also renders
+ * whole pages, into the same pooled image buffers, in either RenderProfile.
+ */
+public final class TileRenderer {
+    public static final int TILE_SIZE = 512;
+
+    // Pages bigger than this (in pixels) at the target DPI are drawn as tiles
+    public static final long MAX_PAGE_PIXELS = 4096L * 4096L;
+
+    private TileRenderer() {
+    }
+
+    public static boolean needsTiling(double pageWidthPoints, double pageHeightPoints, float dpi) {
+        return pixels(pageWidthPoints, dpi) * pixels(pageHeightPoints, dpi) > MAX_PAGE_PIXELS;
+    }
+
+    public static int pixels(double points, float dpi) {
+        return (int) Math.ceil(points * dpi / 72.0);
+    }
+
+    public static int tileCount(double points, float dpi) {
+        return (pixels(points, dpi) + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    /**
+     * Render one tile straight into a pooled JavaFX image. Tiles on the right and
+     * bottom edges are cropped to the page. Page sizes are as displayed, i.e.
+     * already swapped for rotated pages.
+     */
+    public static WritableImage renderTile(PDFRenderer renderer, RenderProfile profile, int pageIndex, float dpi,
+                                           int column, int row, double pageWidthPoints, double pageHeightPoints)
+            throws IOException {
+        int x = column * TILE_SIZE;
+        int y = row * TILE_SIZE;
+        int width = Math.min(TILE_SIZE, pixels(pageWidthPoints, dpi) - x);
+        int height = Math.min(TILE_SIZE, pixels(pageHeightPoints, dpi) - y);
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Tile " + column + "," + row + " is outside the page");
+        }
+
+        profile.apply(renderer);
+        return timedDraw(profile, pageIndex, dpi, column, row, width, height, g2d -> {
+            // Shift the page so this tile's top-left corner lands at the origin
+            g2d.translate(-x, -y);
+            renderer.renderPageToGraphics(pageIndex, g2d, dpi / 72f);
+        });
+    }
+
+    /**
+     * Render a whole page straight into a pooled JavaFX image, sized the way
+     * PDFRenderer.renderImageWithDPI sizes its own images.
+     */
+    public static WritableImage renderPage(PDFRenderer renderer, RenderProfile profile, int pageIndex, float dpi,
+                                           double pageWidthPoints, double pageHeightPoints) throws IOException {
+        float scale = dpi / 72f;
+        // Float arithmetic, as PDFBox uses, so sizes agree to the pixel
+        int width = (int) Math.max(Math.floor((float) pageWidthPoints * scale), 1);
+        int height = (int) Math.max(Math.floor((float) pageHeightPoints * scale), 1);
+        profile.apply(renderer);
+        return timedDraw(profile, pageIndex, dpi, -1, -1, width, height,
+                g2d -> renderer.renderPageToGraphics(pageIndex, g2d, scale));
+    }
+
+    // Draw into a pooled image, timing PDFBox separately from the buffer work around it
+    private static WritableImage timedDraw(RenderProfile profile, int pageIndex, float dpi, int column, int row,
+                                           int width, int height, FxImagePool.Painter painter) throws IOException {
+        PageRenderEvent event = new PageRenderEvent();
+        event.begin();
+        long started = System.nanoTime();
+        long[] renderNanos = new long[1];
+        WritableImage image = FxImagePool.shared().draw(width, height, g2d -> {
+            long renderStarted = System.nanoTime();
+            painter.paint(g2d);
+            renderNanos[0] = System.nanoTime() - renderStarted;
+        });
+        long conversionNanos = System.nanoTime() - started - renderNanos[0];
+        PerformanceMetrics.get().recordRender(profile, pageIndex, dpi, (long) width * height,
+                renderNanos[0], conversionNanos);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.page = pageIndex;
+            event.dpi = dpi;
+            event.profile = profile.getName();
+            event.tile = column + "," + row;
+            event.width = width;
+            event.height = height;
+            event.conversionNanos = conversionNanos;
+            event.commit();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.pdftool.view;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.geometry.Pos;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Skin;
+import javafx.scene.control.skin.ListViewSkin;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.image.WritableImage;
+import javafx.util.Duration;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.example.pdftool.controller.DocumentHandles;
+import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.controller.SearchResults;
+import org.example.pdftool.render.FxImagePool;
+import org.example.pdftool.render.PageImageCache;
+import org.example.pdftool.render.RenderProfile;
+import org.example.pdftool.render.RenderResolution;
+import org.example.pdftool.render.RenderService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Continuous scrolling view of the whole document. ListView only creates cells
+ * for the pages on screen, so memory follows the viewport rather than the page
+ * count; pages a little beyond the viewport are prefetched into the cache.
+ * Pages that scroll into view mid-scroll are drawn as fast drafts, and redrawn
+ * at full quality once scrolling stops.
+ */
+public class ContinuousPageView extends ListView<Integer> {
+    private final PDFController pdfController;
+    private final RenderService renderService;
+    private final PageImageCache pageCache;
+    private PageCounter pageCounter;
+    private VirtualFlow<?> flow;
+    private int firstVisible = -1;
+    private int lastVisible = -1;
+
+    private int documentId = -1;
+    private double[] pageWidths = new double[0];
+    private double[] pageHeights = new double[0];
+
+    // Screen pixels per PDF point, and pages rendered either side of the viewport
+    private static final double DISPLAY_SCALE = 1.25;
+    private static final int PAGE_MARGIN = 2;
+
+    // Scrolling counts as ongoing while the viewport moves again within this delay
+    private static final Duration SCROLL_SETTLE_DELAY = Duration.millis(250);
+    private final PauseTransition scrollSettled = new PauseTransition(SCROLL_SETTLE_DELAY);
+    private boolean scrolling = false;
+
+    private class PageCell extends ListCell<Integer> {
+        private Future<?> pending;
+        // Showing (or about to show) a fast draft, not yet in the cache
+        private boolean draft = false;
+
+        @Override
+        protected void updateItem(Integer pageIndex, boolean empty) {
+            super.updateItem(pageIndex, empty);
+
+            // Cell is being recycled, so the previous page no longer needs rendering
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            if (getGraphic() instanceof PDFPageView previous) {
+                previous.release();
+            }
+
+            if (empty || pageIndex == null || pageIndex >= pageWidths.length) {
+                setGraphic(null);
+                return;
+            }
+
+            PDFPageView pageView = new PDFPageView(pageIndex,
+                    pageWidths[pageIndex] * DISPLAY_SCALE, pageHeights[pageIndex] * DISPLAY_SCALE);
+            setGraphic(pageView);
+            showHighlights(pageView);
+            render(pageView, scrolling);
+        }
+
+        private void render(PDFPageView pageView, boolean fast) {
+            int pageIndex = pageView.getPageIndex();
+            PageImageCache.PageKey key = pageKey(pageIndex);
+            WritableImage cached = pageCache.get(key);
+            if (cached != null) {
+                draft = false;
+                pageView.setImage(cached);
+                return;
+            }
+
+            DocumentHandles handles = pdfController.getDocumentHandles();
+            float dpi = key.dpi();
+            RenderProfile profile = fast ? RenderProfile.FAST : RenderProfile.QUALITY;
+            draft = fast;
+            pending = renderService.render(() -> {
+                WritableImage image = PDFDocumentView.rasterizePage(handles, profile, pageIndex, dpi);
+                if (!fast) {
+                    pageCache.put(key, image);
+                }
+                return image;
+            }, image -> {
+                // A draft finishing after its replacement was asked for is dropped
+                if (getGraphic() == pageView && draft == fast) {
+                    pageView.setImage(image);
+                }
+                FxImagePool.shared().release(image);
+            });
+        }
+
+        // Replace a draft with the full-quality page
+        private void redrawDraft() {
+            if (draft && getGraphic() instanceof PDFPageView pageView) {
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+                render(pageView, false);
+            }
+        }
+    }
+
+    public ContinuousPageView(PDFController pdfController, RenderService renderService, PageImageCache pageCache) {
+        this.pdfController = pdfController;
+        this.renderService = renderService;
+        this.pageCache = pageCache;
+
+        setCellFactory(listView -> {
+            PageCell cell = new PageCell();
+            cell.setStyle("-fx-background-color: transparent; -fx-padding: 8px;");
+            cell.setAlignment(Pos.CENTER);
+            return cell;
+        });
+        setStyle("-fx-background: rgb(50,50,50); -fx-background-color: rgb(50,50,50);");
+        setFocusTraversable(false);
+
+        scrollSettled.setOnFinished(event -> {
+            scrolling = false;
+            redrawDrafts();
+        });
+    }
+
+    @Override
+    protected Skin<?> createDefaultSkin() {
+        return new ListViewSkin<>(this) {
+            {
+                flow = getVirtualFlow();
+                flow.positionProperty().addListener((obs, oldVal, newVal) -> {
+                    // One wheel notch or a jump to a page is drawn at full quality straight away
+                    scrolling = scrollSettled.getStatus() == Animation.Status.RUNNING;
+                    scrollSettled.playFromStart();
+                    onScrolled();
+                });
+            }
+        };
+    }
+
+    // Cache keys for this view's pages, set whenever a document is loaded
+    public void setDocumentId(int documentId) {
+        this.documentId = documentId;
+    }
+
+    public void setPageCounter(PageCounter pageCounter) {
+        this.pageCounter = pageCounter;
+    }
+
+    /**
+     * Size a placeholder for every page from its crop box; nothing is rendered here.
+     */
+    public void loadDocument() {
+        int pageCount = pdfController.getPageCount();
+        pageWidths = new double[pageCount];
+        pageHeights = new double[pageCount];
+
+        int pageIndex = 0;
+        for (PDPage page : pdfController.getDocument().getPages()) {
+            PDRectangle cropBox = page.getCropBox();
+            boolean rotated = page.getRotation() % 180 != 0;
+            pageWidths[pageIndex] = rotated ? cropBox.getHeight() : cropBox.getWidth();
+            pageHeights[pageIndex] = rotated ? cropBox.getWidth() : cropBox.getHeight();
+            pageIndex++;
+        }
+
+        List<Integer> pages = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            pages.add(i);
+        }
+        firstVisible = -1;
+        lastVisible = -1;
+        getItems().setAll(pages);
+        scrollTo(pdfController.getCurrentPage());
+    }
+
+    public void clear() {
+        scrollSettled.stop();
+        scrolling = false;
+        getItems().clear();
+        pageWidths = new double[0];
+        pageHeights = new double[0];
+    }
+
+    // Keep the controller's current page in step with the viewport, and warm the cache around it
+    private void onScrolled() {
+        if (flow == null || getItems().isEmpty()) return;
+
+        IndexedCell<?> first = flow.getFirstVisibleCell();
+        IndexedCell<?> last = flow.getLastVisibleCell();
+        if (first == null || last == null) return;
+        if (first.getIndex() == firstVisible && last.getIndex() == lastVisible) return;
+        firstVisible = first.getIndex();
+        lastVisible = last.getIndex();
+
+        if (first.getIndex() != pdfController.getCurrentPage()) {
+            pdfController.setCurrentPage(first.getIndex());
+            if (pageCounter != null) {
+                pageCounter.updateLabel();
+            }
+        }
+
+        DocumentHandles handles = pdfController.getDocumentHandles();
+        renderService.cancelPrefetch();
+        for (int distance = 1; distance <= PAGE_MARGIN; distance++) {
+            prefetchPage(handles, last.getIndex() + distance);
+            prefetchPage(handles, first.getIndex() - distance);
+        }
+    }
+
+    private void prefetchPage(DocumentHandles handles, int pageIndex) {
+        if (pageIndex < 0 || pageIndex >= pageWidths.length) return;
+
+        PageImageCache.PageKey key = pageKey(pageIndex);
+        renderService.prefetch(() -> {
+            if (!pageCache.contains(key)) {
+                WritableImage image = PDFDocumentView.rasterizePage(handles, RenderProfile.QUALITY, pageIndex, key.dpi());
+                pageCache.put(key, image);
+                FxImagePool.shared().release(image);
+            }
+            return null;
+        });
+    }
+
+    private PageImageCache.PageKey pageKey(int pageIndex) {
+        return new PageImageCache.PageKey(documentId, pageIndex, displayDpi());
+    }
+
+    private void showHighlights(PDFPageView pageView) {
+        SearchResults results = pdfController.getCurrentSearchResults();
+        pageView.setHighlights(results.onPage(pageView.getPageIndex()), DISPLAY_SCALE,
+                pdfController.getCurrentSearchResult());
+    }
+
+    private void redrawDrafts() {
+        if (flow == null) return;
+        for (int i = 0; i < flow.getCellCount(); i++) {
+            if (flow.getCell(i) instanceof PageCell cell) {
+                cell.redrawDraft();
+            }
+        }
+    }
+
+    // Redraw highlights on the pages currently on screen, without re-rendering them
+    public void updateHighlights() {
+        if (flow == null) return;
+        for (int i = 0; i < flow.getCellCount(); i++) {
+            IndexedCell<?> cell = flow.getCell(i);
+            if (cell.getGraphic() instanceof PDFPageView pageView) {
+                showHighlights(pageView);
+            }
+        }
+    }
+
+    // Pages are shown at a fixed scale, so render at exactly that many device pixels
+    private float displayDpi() {
+        double outputScale = getScene() != null && getScene().getWindow() != null
+                ? getScene().getWindow().getOutputScaleY()
+                : 1.0;
+        return RenderResolution.snap(DISPLAY_SCALE * 72.0 * outputScale);
+    }
+}
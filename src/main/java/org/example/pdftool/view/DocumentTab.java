@@ -0,0 +1,183 @@
+package org.example.pdftool.view;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.Tab;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.BorderPane;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.render.PageImageCache;
+import org.example.pdftool.render.RenderService;
+import org.example.pdftool.render.ThumbnailGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One open document: its own controller, page counter, view, search bar and
+ * thumbnails. The render workers, page cache and thumbnail generator are shared
+ * by every tab, and only the selected tab is given them (see activate/deactivate).
+ */
+public class DocumentTab extends Tab {
+    private final PDFController pdfController;
+    private final PageCounter pageCounter;
+    private final PDFDocumentView documentView;
+    private final SearchBar searchBar;
+    private final ThumbnailSidebar thumbnailSidebar;
+    private final BorderPane layout = new BorderPane();
+    private boolean thumbnailsVisible = true;
+    private boolean active = false;
+    private boolean opening = false;
+    private boolean closed = false;
+    private int openCounter = 0;
+    private File documentFile;
+
+    // A document parsed in the background, with its first page at preview quality
+    private record OpenedDocument(PDDocument document, WritableImage preview) {
+    }
+
+    public DocumentTab(RenderService renderService, PageImageCache pageCache, ThumbnailGenerator thumbnailGenerator) {
+        super("No document");
+        pdfController = new PDFController();
+        pageCounter = new PageCounter(pdfController);
+        documentView = new PDFDocumentView(pdfController, pageCounter, renderService, pageCache);
+        searchBar = new SearchBar(pdfController, documentView, pageCounter);
+        thumbnailSidebar = new ThumbnailSidebar(pdfController, documentView, pageCounter, thumbnailGenerator);
+
+        layout.setCenter(documentView);
+        layout.setLeft(thumbnailSidebar);
+        BorderPane.setMargin(documentView, new Insets(2));
+        setContent(layout);
+    }
+
+    /**
+     * Parse file and draw a rough first page off the FX thread, then swap the
+     * document into this tab. Completes on the FX thread with true once it is
+     * shown, or false if another open (or closing the tab) overtook it.
+     */
+    public CompletableFuture<Boolean> open(File file) {
+        long started = System.nanoTime();
+        int openId = ++openCounter;
+        opening = true;
+        setText(file.getName());
+
+        CompletableFuture<Boolean> shown = new CompletableFuture<>();
+        pdfController.loadInBackground(file).thenApply(document -> {
+            WritableImage preview = null;
+            try {
+                preview = PDFDocumentView.rasterizePreview(document);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return new OpenedDocument(document, preview);
+        }).whenComplete((opened, error) -> Platform.runLater(() -> {
+            if (openId != openCounter || closed) {
+                // Another file was chosen while this one was loading
+                if (opened != null) closeQuietly(opened.document());
+                shown.complete(false);
+                return;
+            }
+            opening = false;
+            if (error != null) {
+                setText(documentFile != null ? documentFile.getName() : "No document");
+                shown.completeExceptionally(error);
+                return;
+            }
+            try {
+                showOpenedDocument(file, opened, started);
+                shown.complete(true);
+            } catch (IOException e) {
+                shown.completeExceptionally(e);
+            }
+        }));
+        return shown;
+    }
+
+    private void showOpenedDocument(File file, OpenedDocument opened, long started) throws IOException {
+        thumbnailSidebar.clear();
+        pdfController.clearSearchResults();
+        pdfController.openLoadedDocument(file, opened.document());
+        documentFile = file;
+        documentView.startFirstPaintTimer(started);
+        documentView.setupRenderer(opened.preview());
+        pageCounter.updateLabel();
+        // A tab opened in the background draws when it is first brought forward
+        if (active) {
+            documentView.displayCurrentPage();
+            thumbnailSidebar.loadDocument();
+        }
+    }
+
+    private static void closeQuietly(PDDocument document) {
+        try {
+            document.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Brought to the front: this document gets the render workers and the thumbnail generator
+    public void activate() {
+        active = true;
+        documentView.activate();
+        if (hasDocument()) {
+            thumbnailSidebar.loadDocument();
+        }
+    }
+
+    public void deactivate() {
+        active = false;
+        documentView.deactivate();
+    }
+
+    // Release the document and everything it holds in the shared cache
+    public void close() {
+        closed = true;
+        active = false;
+        documentView.close();
+        thumbnailSidebar.clear();
+        pdfController.cancelSearch();
+        try {
+            pdfController.closeDocument();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void setThumbnailsVisible(boolean visible) {
+        thumbnailsVisible = visible;
+        layout.setLeft(visible ? thumbnailSidebar : null);
+    }
+
+    public boolean isThumbnailsVisible() {
+        return thumbnailsVisible;
+    }
+
+    public boolean hasDocument() {
+        return pdfController.hasDocument();
+    }
+
+    // Nothing open and nothing on the way, so the next file can go in this tab
+    public boolean isEmpty() {
+        return !hasDocument() && !opening;
+    }
+
+    public PDFController getController() {
+        return pdfController;
+    }
+
+    public PDFDocumentView getDocumentView() {
+        return documentView;
+    }
+
+    public PageCounter getPageCounter() {
+        return pageCounter;
+    }
+
+    public SearchBar getSearchBar() {
+        return searchBar;
+    }
+}
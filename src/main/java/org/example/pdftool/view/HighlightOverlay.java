@@ -0,0 +1,98 @@
+package org.example.pdftool.view;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.example.pdftool.controller.PDFController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search highlights and the text selection drawn as shapes over a page image, so
+ * moving between hits or dragging a selection never needs the page to be rendered
+ * again. Sized to match the image it covers.
+ */
+public class HighlightOverlay extends Pane {
+    private static final Color HIGHLIGHT = Color.rgb(1, 133, 204, 0.5);
+    private static final Color CURRENT_HIGHLIGHT = Color.rgb(255, 176, 0, 0.55);
+    private static final Color SELECTION = Color.rgb(120, 170, 255, 0.4);
+
+    private List<Rectangle> hitShapes = List.of();
+    private List<Rectangle> selectionShapes = List.of();
+
+    public HighlightOverlay() {
+        setMouseTransparent(true);
+        setPickOnBounds(false);
+    }
+
+    public void setSize(double width, double height) {
+        setMinSize(width, height);
+        setPrefSize(width, height);
+        setMaxSize(width, height);
+    }
+
+    /**
+     * @param pointsToLayout layout pixels per PDF point for the image underneath
+     * @param current        the selected search result, drawn in a stronger colour, or null
+     */
+    public void setHighlights(List<PDFController.PDFSearchResult> hits, double pointsToLayout,
+                              PDFController.PDFSearchResult current) {
+        List<Rectangle> rectangles = new ArrayList<>(hits.size());
+        for (PDFController.PDFSearchResult result : hits) {
+            /* Something very strange is happening. When I subtract rectHeight from "y" below,
+               it causes the rectangle to be drawn from the bottom left and up. If I don't subtract, it draws down
+               and to the right as expected. I have no idea why. It means I can't properly manipulate the highlight
+               to be in a better place. This works for now.
+            */
+            PDRectangle position = result.position();
+
+            double x = position.getLowerLeftX() * pointsToLayout;
+            double y = (position.getLowerLeftY() - position.getHeight() - 2) * pointsToLayout;
+            double rectWidth = position.getWidth() * pointsToLayout;
+            double rectHeight = position.getHeight() * pointsToLayout * 1.5;
+
+            Rectangle rectangle = new Rectangle(x, y, rectWidth, rectHeight);
+            rectangle.setFill(result.equals(current) ? CURRENT_HIGHLIGHT : HIGHLIGHT);
+            rectangles.add(rectangle);
+        }
+        hitShapes = rectangles;
+        redraw();
+    }
+
+    /**
+     * @param lineBoxes one box per selected line, as PageText.selectionBoxes gives them
+     */
+    public void setSelection(List<PDRectangle> lineBoxes, double pointsToLayout) {
+        List<Rectangle> rectangles = new ArrayList<>(lineBoxes.size());
+        for (PDRectangle box : lineBoxes) {
+            // Boxes sit on the baseline; cover the glyphs plus a little below for descenders
+            double top = (box.getLowerLeftY() - box.getHeight()) * pointsToLayout;
+            Rectangle rectangle = new Rectangle(box.getLowerLeftX() * pointsToLayout, top,
+                    box.getWidth() * pointsToLayout, box.getHeight() * 1.25 * pointsToLayout);
+            rectangle.setFill(SELECTION);
+            rectangles.add(rectangle);
+        }
+        selectionShapes = rectangles;
+        redraw();
+    }
+
+    public void clearSelection() {
+        selectionShapes = List.of();
+        redraw();
+    }
+
+    private void redraw() {
+        List<Rectangle> shapes = new ArrayList<>(hitShapes.size() + selectionShapes.size());
+        shapes.addAll(hitShapes);
+        shapes.addAll(selectionShapes);
+        getChildren().setAll(shapes);
+    }
+
+    public void clear() {
+        hitShapes = List.of();
+        selectionShapes = List.of();
+        getChildren().clear();
+    }
+}
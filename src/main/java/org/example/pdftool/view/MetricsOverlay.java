@@ -0,0 +1,73 @@
+package org.example.pdftool.view;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+import org.example.pdftool.metrics.PerformanceMetrics;
+import org.example.pdftool.theme.Theme;
+
+/**
+ * Live figures from PerformanceMetrics drawn over the document, refreshed twice a
+ * second while visible, plus the open timings of the document being shown.
+ */
+public class MetricsOverlay extends Label {
+    private static final Duration REFRESH_INTERVAL = Duration.millis(500);
+
+    private final Timeline refresh = new Timeline(new KeyFrame(REFRESH_INTERVAL, event -> update()));
+    private PDFDocumentView documentView;
+
+    public MetricsOverlay() {
+        setMouseTransparent(true);
+        setPadding(new Insets(8, 12, 8, 12));
+        setStyle("-fx-background-color: " + Theme.BACKGROUND + "cc; -fx-text-fill: " + Theme.TEXT_PRIMARY
+                + "; -fx-font-size: 12px; -fx-background-radius: 4;");
+        refresh.setCycleCount(Timeline.INDEFINITE);
+        setVisible(false);
+    }
+
+    // Only tick while showing
+    public void setShowing(boolean showing) {
+        setVisible(showing);
+        if (showing) {
+            update();
+            refresh.play();
+        } else {
+            refresh.stop();
+        }
+    }
+
+    public void setDocumentView(PDFDocumentView documentView) {
+        this.documentView = documentView;
+        if (isVisible()) update();
+    }
+
+    private void update() {
+        PerformanceMetrics metrics = PerformanceMetrics.get();
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Load        %.0f ms (%d documents)%n",
+                metrics.getLastLoadMillis(), metrics.getDocumentsLoaded()));
+        if (documentView != null && documentView.getTimeToFirstPixelMillis() >= 0) {
+            text.append(String.format("Open        first pixel %d ms, full quality %s%n",
+                    documentView.getTimeToFirstPixelMillis(),
+                    documentView.getTimeToFullQualityMillis() >= 0
+                            ? documentView.getTimeToFullQualityMillis() + " ms" : "..."));
+        }
+        text.append(String.format("Render      page %d @ %.0f dpi: %.1f ms (avg %.1f ms, %d renders)%n",
+                metrics.getLastRenderPage() + 1, metrics.getLastRenderDpi(), metrics.getLastRenderMillis(),
+                metrics.getAverageRenderMillis(), metrics.getPagesRendered()));
+        text.append(String.format("Slowest     page %d @ %.0f dpi: %.1f ms%n",
+                metrics.getSlowestRenderPage() + 1, metrics.getSlowestRenderDpi(), metrics.getSlowestRenderMillis()));
+        text.append(String.format("Profiles    fast %.0f MP/s (%d renders), quality %.0f MP/s (%d renders)%n",
+                metrics.getFastRenderMegapixelsPerSecond(), metrics.getFastRenders(),
+                metrics.getQualityRenderMegapixelsPerSecond(), metrics.getQualityRenders()));
+        text.append(String.format("Conversion  avg %.2f ms%n", metrics.getAverageConversionMillis()));
+        text.append(String.format("Search      %.1f ms/page, %.2f hits/page, last search %.0f ms%n",
+                metrics.getAverageSearchPageMillis(), metrics.getHitsPerPage(), metrics.getLastSearchMillis()));
+        text.append(String.format("Cache       %.0f%% hits, %d MB%n",
+                metrics.getCacheHitRatio() * 100, metrics.getCacheBytesUsed() / (1024 * 1024)));
+        text.append(String.format("Images      %d MB", metrics.getPageImageBytes() / (1024 * 1024)));
+        setText(text.toString());
+    }
+}
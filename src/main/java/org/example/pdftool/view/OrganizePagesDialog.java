@@ -0,0 +1,118 @@
+package org.example.pdftool.view;
+
+import javafx.beans.binding.Bindings;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reorder, rotate and delete a document's pages. Nothing is touched until OK;
+ * the result is the new page order as {pageIndex, extra rotation} pairs.
+ */
+public class OrganizePagesDialog extends Dialog<List<int[]>> {
+    private final ObservableList<int[]> pages = FXCollections.observableArrayList();
+    private final ListView<int[]> pageList = new ListView<>(pages);
+    private final int pageCount;
+
+    public OrganizePagesDialog(int pageCount) {
+        this.pageCount = pageCount;
+        setTitle("Organize Pages");
+        setHeaderText("Select pages to move, rotate or delete");
+
+        // The list is virtual, so documents of thousands of pages are fine
+        pageList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        pageList.setPrefSize(320, 420);
+        pageList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(int[] page, boolean empty) {
+                super.updateItem(page, empty);
+                if (empty || page == null) {
+                    setText(null);
+                } else {
+                    setText("Page " + (page[0] + 1) + (page[1] != 0 ? "  (rotated " + page[1] + "°)" : ""));
+                }
+            }
+        });
+        reset();
+
+        Button up = new Button("Move Up");
+        up.setOnAction(event -> move(-1));
+        Button down = new Button("Move Down");
+        down.setOnAction(event -> move(1));
+        Button left = new Button("Rotate Left");
+        left.setOnAction(event -> rotate(-90));
+        Button right = new Button("Rotate Right");
+        right.setOnAction(event -> rotate(90));
+        Button delete = new Button("Delete");
+        delete.setOnAction(event -> delete());
+        Button reset = new Button("Reset");
+        reset.setOnAction(event -> reset());
+
+        VBox buttons = new VBox(8, up, down, left, right, delete, reset);
+        buttons.getChildren().forEach(button -> ((Button) button).setMaxWidth(Double.MAX_VALUE));
+        HBox content = new HBox(12, pageList, buttons);
+        content.setPadding(new Insets(10));
+
+        getDialogPane().setContent(content);
+        getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        // A PDF can't have no pages
+        getDialogPane().lookupButton(ButtonType.OK).disableProperty().bind(
+                Bindings.isEmpty(pages));
+        setResultConverter(button -> button == ButtonType.OK ? new ArrayList<>(pages) : null);
+    }
+
+    private void reset() {
+        List<int[]> original = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            original.add(new int[]{i, 0});
+        }
+        pages.setAll(original);
+    }
+
+    // Shift the selected pages one place, keeping them selected
+    private void move(int direction) {
+        List<Integer> selected = new ArrayList<>(pageList.getSelectionModel().getSelectedIndices());
+        if (selected.isEmpty()) return;
+        // Move the page nearest the edge first, so pages never jump over each other
+        selected.sort(direction < 0 ? Comparator.naturalOrder() : Comparator.reverseOrder());
+        int edge = direction < 0 ? 0 : pages.size() - 1;
+        if (selected.get(0) == edge) return;
+
+        for (int index : selected) {
+            int[] page = pages.remove(index);
+            pages.add(index + direction, page);
+        }
+        pageList.getSelectionModel().clearSelection();
+        for (int index : selected) {
+            pageList.getSelectionModel().select(index + direction);
+        }
+    }
+
+    private void rotate(int degrees) {
+        for (int[] page : pageList.getSelectionModel().getSelectedItems()) {
+            page[1] = Math.floorMod(page[1] + degrees, 360);
+        }
+        pageList.refresh();
+    }
+
+    private void delete() {
+        List<Integer> selected = new ArrayList<>(pageList.getSelectionModel().getSelectedIndices());
+        selected.sort(Comparator.reverseOrder());
+        pageList.getSelectionModel().clearSelection();
+        for (int index : selected) {
+            pages.remove(index);
+        }
+    }
+}
@@ -1,19 +1,41 @@
 package org.example.pdftool.view;
 
-import javafx.embed.swing.SwingFXUtils;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.scene.Cursor;
 import javafx.scene.Group;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.WritableImage;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.rendering.PDFRenderer;
+import org.example.pdftool.controller.DocumentHandles;
 import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.controller.PageText;
+import org.example.pdftool.controller.SearchResults;
+import org.example.pdftool.metrics.PerformanceMetrics;
+import org.example.pdftool.render.FxImagePool;
+import org.example.pdftool.render.PageImageCache;
+import org.example.pdftool.render.RenderProfile;
+import org.example.pdftool.render.RenderResolution;
+import org.example.pdftool.render.RenderService;
+import org.example.pdftool.render.TileRenderer;
 
-import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
@@ -26,15 +48,57 @@ public class PDFDocumentView extends Pane {
     private final PDFController pdfController;
     private final ZoomableScrollPane scrollPane;
     private PDFRenderer renderer;
+    // Shared with the other open documents
+    private final RenderService renderService;
+    private final PageImageCache pageCache;
+    private int documentId = PageImageCache.newDocumentId();
+    private boolean active = false;
+    private final FxImagePool imagePool = FxImagePool.shared();
+    private int displayedPage = -1;
+
+    // High-zoom tiles drawn over the (lower resolution) whole-page image
+    private final Pane tileLayer;
+    private final HighlightOverlay highlightLayer;
+    private final Map<PageImageCache.PageKey, ImageView> tileViews = new HashMap<>();
+    private final Map<PageImageCache.PageKey, Future<?>> pendingTiles = new HashMap<>();
+    private int tilePage = -1;
+    private float tileDpi = 0;
+    private static final Duration ZOOM_SETTLE_DELAY = Duration.millis(250);
+    private static final int PREFETCH_AHEAD = 3;
+    private static final int PREFETCH_BEHIND = 1;
+
+    // Wheel page flips closer together than the settle delay are drawn as fast drafts,
+    // and whichever page the flipping stops on is then redrawn at full quality
+    private static final Duration FLIP_SETTLE_DELAY = Duration.millis(250);
+    private final PauseTransition flipSettled = new PauseTransition(FLIP_SETTLE_DELAY);
+    private boolean flipping = false;
+    private boolean showingDraft = false;
+
+    // Text selection on the displayed page, as caret offsets into its text layer
+    private PageText selectionLayer;
+    private int selectionAnchor = 0;
+    private int selectionCaret = 0;
+    private boolean selecting = false;
+    // How near a glyph (in points) a press has to be to start selecting rather than panning
+    private static final float SELECT_SLOP = 2;
+
+    // Open-to-screen timings, from startFirstPaintTimer(); -1 until measured
+    private long openStartedNanos = -1;
+    private long firstPixelMillis = -1;
+    private long fullQualityMillis = -1;
 
     private final ImageView pdfView;
     private final StackPane centrePane;
     private PageCounter pageCounter;
+    private final ContinuousPageView continuousView;
+    private boolean continuous = false;
 
 
     public class ZoomableScrollPane extends ScrollPane {
         private double scaleValue = 1.0;
         private double zoomIntensity = 0.02;
+        // Re-render at the new zoom's DPI once the gesture has been idle for a moment
+        private final PauseTransition zoomSettled = new PauseTransition(ZOOM_SETTLE_DELAY);
         private Node target;
         private Node zoomNode;
 
@@ -53,6 +117,11 @@ public class PDFDocumentView extends Pane {
             this.setStyle("-fx-background: rgb(50,50,50); -fx-background-color: rgb(50,50,50);");
 
             updateScale();
+            zoomSettled.setOnFinished(e -> PDFDocumentView.this.displayCurrentPage());
+        }
+
+        public double getScaleValue() {
+            return scaleValue;
         }
 
         private Node outerNode(Node node) {
@@ -70,7 +139,7 @@ public class PDFDocumentView extends Pane {
                     } else {
                         pdfController.previousPage();
                     }
-                PDFDocumentView.this.displayCurrentPage();
+                PDFDocumentView.this.pageFlipped();
                 pageCounter.updateLabel();
                 }
 
@@ -101,6 +170,7 @@ public class PDFDocumentView extends Pane {
 
             scaleValue = scaleValue * zoomFactor;
             updateScale();
+            zoomSettled.playFromStart();
             this.layout(); // refresh ScrollPane scroll positions & target bounds
 
             // convert target coordinates to zoomTarget coordinates
@@ -117,9 +187,12 @@ public class PDFDocumentView extends Pane {
         }
     }
 
-    public PDFDocumentView(PDFController pdfController, PageCounter pageCounter) {
+    public PDFDocumentView(PDFController pdfController, PageCounter pageCounter,
+                           RenderService renderService, PageImageCache pageCache) {
         this.pdfController = pdfController;
         this.pageCounter = pageCounter;
+        this.renderService = renderService;
+        this.pageCache = pageCache;
 
         // Create image view
         pdfView = new ImageView();
@@ -130,72 +203,589 @@ public class PDFDocumentView extends Pane {
         centrePane.setAlignment(Pos.CENTER);
         centrePane.getChildren().add(pdfView);
 
+        // Tiles and search highlights sit exactly over the page image (same size, both centred)
+        tileLayer = new Pane();
+        tileLayer.setMouseTransparent(true);
+        highlightLayer = new HighlightOverlay();
+        centrePane.getChildren().addAll(tileLayer, highlightLayer);
+
+        // Dragging over text selects it; anywhere else the page pans as before
+        centrePane.addEventFilter(MouseEvent.MOUSE_PRESSED, this::startSelection);
+        centrePane.addEventFilter(MouseEvent.MOUSE_DRAGGED, this::extendSelection);
+        centrePane.addEventFilter(MouseEvent.MOUSE_RELEASED, event -> endSelection());
+        centrePane.setOnMouseMoved(this::updateCursor);
+
         // Add layout to zoomable scroll pane
         scrollPane = new ZoomableScrollPane(centrePane);
+        scrollPane.hvalueProperty().addListener((obs, oldVal, newVal) -> updateTiles());
+        scrollPane.vvalueProperty().addListener((obs, oldVal, newVal) -> updateTiles());
+
+        // Continuous mode swaps the scroll pane for a virtualized list of pages
+        continuousView = new ContinuousPageView(pdfController, renderService, pageCache);
+        continuousView.setPageCounter(pageCounter);
 
         // Ensure PDFDocumentView (Pane) resizes with parent container
-        this.widthProperty().addListener((obs, oldVal, newVal)
-                -> scrollPane.setPrefWidth(newVal.doubleValue()));
-        this.heightProperty().addListener((obs, oldVal, newVal)
-                -> scrollPane.setPrefHeight(newVal.doubleValue()));
+        this.widthProperty().addListener((obs, oldVal, newVal) -> {
+            scrollPane.setPrefWidth(newVal.doubleValue());
+            continuousView.setPrefWidth(newVal.doubleValue());
+        });
+        this.heightProperty().addListener((obs, oldVal, newVal) -> {
+            scrollPane.setPrefHeight(newVal.doubleValue());
+            continuousView.setPrefHeight(newVal.doubleValue());
+        });
 
         getChildren().add(scrollPane);
+
+        flipSettled.setOnFinished(event -> {
+            flipping = false;
+            if (showingDraft && !continuous) {
+                renderPage();
+            }
+        });
+    }
+
+    // A second flip while the last one is still settling means the user is flipping through
+    private void pageFlipped() {
+        flipping = flipSettled.getStatus() == Animation.Status.RUNNING;
+        flipSettled.playFromStart();
+        displayCurrentPage();
     }
 
     private void renderPage() {
         if (renderer == null) return;
 
-        try {
-            PDPage page = pdfController.getDocument().getPage(pdfController.getCurrentPage());
-            PDRectangle cropBox = page.getCropBox();
+        // Capture everything the worker needs while still on the FX thread
+        int pageIndex = pdfController.getCurrentPage();
+        float sharpDpi = targetDpi(pageIndex);
+
+        // Past a certain size the whole page is only drawn at a capped DPI and
+        // the sharp version is made of tiles covering just the viewport
+        double[] pageSize = pageSizePoints(pageIndex);
+        boolean tiled = TileRenderer.needsTiling(pageSize[0], pageSize[1], sharpDpi);
+        float dpi = tiled ? RenderResolution.maxDpiForPixels(pageSize[0], pageSize[1], TileRenderer.MAX_PAGE_PIXELS) : sharpDpi;
+        tileDpi = tiled ? sharpDpi : 0;
+        tilePage = pageIndex;
+        updateTiles();
+
+        PageImageCache.PageKey key = new PageImageCache.PageKey(documentId, pageIndex, dpi);
+        PageImageCache.PageKey previewKey = new PageImageCache.PageKey(documentId, pageIndex, RenderResolution.PREVIEW_DPI);
+
+        DocumentHandles handles = pdfController.getDocumentHandles();
+
+        WritableImage cached = pageCache.get(key);
+        if (cached != null) {
+            renderService.cancelAll();
+            showingDraft = false;
+            showImage(cached, pageIndex);
+            notePainted(true);
+            prefetchNeighbours(handles, pageIndex, dpi);
+            return;
+        }
+
+        // Show something straight away (the previous sharp image if zooming, otherwise a
+        // low-DPI preview) and replace it once the full-resolution render is done
+        boolean samePage = pdfView.getImage() != null && pageIndex == displayedPage;
+        WritableImage cachedPreview = samePage ? null : pageCache.get(previewKey);
+        if (cachedPreview != null) {
+            showImage(cachedPreview, pageIndex);
+            notePainted(false);
+        }
+        Callable<WritableImage> preview = samePage || cachedPreview != null ? null : () -> {
+            WritableImage fxImage = rasterizePage(handles, RenderProfile.FAST, pageIndex, RenderResolution.PREVIEW_DPI);
+            pageCache.put(previewKey, fxImage);
+            return fxImage;
+        };
+
+        // A draft is only on screen until flipping stops, so it isn't worth a place in the cache
+        boolean draft = flipping;
+        RenderProfile profile = draft ? RenderProfile.FAST : RenderProfile.QUALITY;
+        showingDraft = draft;
+        renderService.submit(preview, () -> {
+            WritableImage fxImage = rasterizePage(handles, profile, pageIndex, dpi);
+            if (!draft) {
+                pageCache.put(key, fxImage);
+            }
+            return fxImage;
+        }, fxImage -> {
+            showImage(fxImage, pageIndex);
+            imagePool.release(fxImage);
+            // Only once the sharp image is in, not after the preview
+            boolean sharp = pageCache.contains(key);
+            notePainted(sharp);
+            if (sharp) {
+                prefetchNeighbours(handles, pageIndex, dpi);
+            }
+        });
+    }
+
+    // DPI that matches the page's size on screen at the current zoom
+    private float targetDpi(int pageIndex) {
+        double displayedHeight = scrollPane.getViewportBounds().getHeight() * scrollPane.getScaleValue();
+        double outputScale = getScene() != null && getScene().getWindow() != null
+                ? getScene().getWindow().getOutputScaleY()
+                : 1.0;
+        return RenderResolution.targetDpi(displayedHeight, pageHeightPoints(pageIndex), outputScale);
+    }
 
-            // Render PDF page to BufferedImage
-            BufferedImage pdfImage = renderer.renderImageWithDPI(pdfController.getCurrentPage(), 144);
+    private double pageHeightPoints(int pageIndex) {
+        return pageSizePoints(pageIndex)[1];
+    }
 
-            // Graphics for highlighting
-            Graphics2D g2d = pdfImage.createGraphics();
-            g2d.setColor(new Color(1, 133, 204, 128));
+    // Width and height as displayed, i.e. swapped for rotated pages
+    private double[] pageSizePoints(int pageIndex) {
+        PDPage page = pdfController.getDocument().getPage(pageIndex);
+        PDRectangle cropBox = page.getCropBox();
+        return page.getRotation() % 180 != 0
+                ? new double[]{cropBox.getHeight(), cropBox.getWidth()}
+                : new double[]{cropBox.getWidth(), cropBox.getHeight()};
+    }
 
-            // Draw highlights for any search results on this page
-            for (PDFController.PDFSearchResult result : PDFController.currentSearchResults) {
-                /* Something very strange is happening. When I subtract rectHeight from "y" below,
-                   it causes the rectangle to be drawn from the bottom left and up. If I don't subtract, it draws down
-                   and to the right as expected. I have no idea why. It means I can't properly manipulate the highlight
-                   to be in a better place. This works for now.
-                */
+    /**
+     * Show the tiles under the viewport for the current page, render any that
+     * are missing in parallel, and drop the ones that have scrolled away.
+     */
+    private void updateTiles() {
+        if (tileDpi == 0 || renderer == null || continuous) {
+            clearTiles();
+            return;
+        }
 
-                if (result.pageNumber() == pdfController.getCurrentPage()) {
-                    PDRectangle position = result.position();
+        int pageIndex = tilePage;
+        float dpi = tileDpi;
+        double[] pageSize = pageSizePoints(pageIndex);
+
+        // Tiles are laid out in the image view's coordinates, which are unscaled by zoom
+        double layoutHeight = scrollPane.getViewportBounds().getHeight();
+        double pixelToLayout = layoutHeight / TileRenderer.pixels(pageSize[1], dpi);
+        sizeLayers(pageSize);
+
+        Bounds visible = pdfView.sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+        if (visible == null) return;
+        double tileLayout = TileRenderer.TILE_SIZE * pixelToLayout;
+        int firstColumn = Math.max(0, (int) Math.floor(visible.getMinX() / tileLayout));
+        int lastColumn = Math.min(TileRenderer.tileCount(pageSize[0], dpi) - 1, (int) Math.floor(visible.getMaxX() / tileLayout));
+        int firstRow = Math.max(0, (int) Math.floor(visible.getMinY() / tileLayout));
+        int lastRow = Math.min(TileRenderer.tileCount(pageSize[1], dpi) - 1, (int) Math.floor(visible.getMaxY() / tileLayout));
+
+        Set<PageImageCache.PageKey> wanted = new HashSet<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                wanted.add(new PageImageCache.PageKey(documentId, pageIndex, dpi, column, row));
+            }
+        }
 
-                    double scale = 144.0 / 72.0;
-                    int x = (int) (position.getLowerLeftX() * scale);
-                    int y = (int) ((position.getLowerLeftY() - position.getHeight() - 2) * scale);
-                    int rectWidth = (int) (position.getWidth() * scale);
-                    int rectHeight = (int) ((position.getHeight() * scale) * 1.5);
+        // Forget tiles that are no longer under the viewport (they stay in the cache)
+        tileViews.keySet().removeIf(key -> {
+            if (wanted.contains(key)) return false;
+            removeTileView(tileViews.get(key));
+            return true;
+        });
+        pendingTiles.entrySet().removeIf(entry -> {
+            if (wanted.contains(entry.getKey())) return false;
+            entry.getValue().cancel(false);
+            return true;
+        });
+
+        DocumentHandles handles = pdfController.getDocumentHandles();
+        for (PageImageCache.PageKey key : wanted) {
+            if (tileViews.containsKey(key) || pendingTiles.containsKey(key)) continue;
+
+            WritableImage cached = pageCache.get(key);
+            if (cached != null) {
+                showTile(key, cached, pixelToLayout);
+                continue;
+            }
 
-                    g2d.fillRect(x, y, rectWidth, rectHeight);
+            pendingTiles.put(key, renderService.render(() -> {
+                WritableImage tile = rasterizeTile(handles, key, pageSize);
+                pageCache.put(key, tile);
+                return tile;
+            }, tile -> {
+                if (pendingTiles.remove(key) != null) {
+                    showTile(key, tile, pixelToLayout);
                 }
+                imagePool.release(tile);
+            }));
+        }
+    }
+
+    private void showTile(PageImageCache.PageKey key, WritableImage tile, double pixelToLayout) {
+        ImageView tileView = new ImageView();
+        imagePool.show(tileView, tile);
+        tileView.setSmooth(true);
+        tileView.setFitWidth(tile.getWidth() * pixelToLayout);
+        tileView.setFitHeight(tile.getHeight() * pixelToLayout);
+        tileView.relocate(key.tileColumn() * TileRenderer.TILE_SIZE * pixelToLayout,
+                key.tileRow() * TileRenderer.TILE_SIZE * pixelToLayout);
+        tileViews.put(key, tileView);
+        tileLayer.getChildren().add(tileView);
+    }
+
+    private void removeTileView(ImageView tileView) {
+        imagePool.show(tileView, null);
+        tileLayer.getChildren().remove(tileView);
+    }
+
+    private void clearTiles() {
+        pendingTiles.values().forEach(pending -> pending.cancel(false));
+        pendingTiles.clear();
+        tileViews.values().forEach(tileView -> imagePool.show(tileView, null));
+        tileViews.clear();
+        tileLayer.getChildren().clear();
+    }
+
+    // Runs on a render worker thread
+    private static WritableImage rasterizeTile(DocumentHandles handles, PageImageCache.PageKey key,
+                                               double[] pageSize) throws IOException {
+        return TileRenderer.renderTile(handles.getRenderer(), RenderProfile.QUALITY, key.pageIndex(), key.dpi(),
+                key.tileColumn(), key.tileRow(), pageSize[0], pageSize[1]);
+    }
+
+    // Speculatively render pages around the visible one, favouring the direction the user is paging in
+    private void prefetchNeighbours(DocumentHandles handles, int pageIndex, float dpi) {
+        int direction = pdfController.getNavigationDirection();
+        int ahead = direction >= 0 ? PREFETCH_AHEAD : PREFETCH_BEHIND;
+        int behind = direction >= 0 ? PREFETCH_BEHIND : PREFETCH_AHEAD;
+        int pageCount = pdfController.getPageCount();
+
+        for (int distance = 1; distance <= Math.max(ahead, behind); distance++) {
+            if (distance <= ahead) {
+                prefetchPage(handles, pageIndex + distance, pageCount, dpi);
+            }
+            if (distance <= behind) {
+                prefetchPage(handles, pageIndex - distance, pageCount, dpi);
             }
+        }
+    }
+
+    private void prefetchPage(DocumentHandles handles, int pageIndex, int pageCount, float dpi) {
+        if (pageIndex < 0 || pageIndex >= pageCount) return;
+
+        PageImageCache.PageKey key = new PageImageCache.PageKey(documentId, pageIndex, dpi);
+        renderService.prefetch(() -> {
+            if (!pageCache.contains(key)) {
+                WritableImage fxImage = rasterizePage(handles, RenderProfile.QUALITY, pageIndex, dpi);
+                pageCache.put(key, fxImage);
+                imagePool.release(fxImage);
+            }
+            return null;
+        });
+    }
+
+    private void showImage(WritableImage fxImage, int pageIndex) {
+        if (pageIndex != displayedPage) {
+            clearSelection();
+            // Build the page's text layer now, so it is ready by the time anyone selects
+            pdfController.getTextLayer(pageIndex);
+        }
+        // Update ImageView
+        displayedPage = pageIndex;
+        imagePool.show(pdfView, fxImage);
+        pdfView.setFitHeight(scrollPane.getViewportBounds().getHeight());
+
+        sizeLayers(pageSizePoints(pageIndex));
+        updateHighlights();
+        drawSelection();
+    }
+
+    // Layout pixels per PDF point for the displayed page
+    private double pointsToLayout() {
+        return scrollPane.getViewportBounds().getHeight() / pageHeightPoints(displayedPage);
+    }
+
+    // The mouse position in page space, as the text layer's boxes are
+    private Point2D pagePoint(MouseEvent event) {
+        Point2D local = highlightLayer.sceneToLocal(event.getSceneX(), event.getSceneY());
+        return local.multiply(1 / pointsToLayout());
+    }
+
+    // The displayed page's text layer, if it is ready (null otherwise, or in continuous mode)
+    private PageText displayedTextLayer() {
+        if (continuous || displayedPage < 0 || renderer == null) return null;
+        return pdfController.getTextLayerIfReady(displayedPage);
+    }
+
+    private void startSelection(MouseEvent event) {
+        if (event.getButton() != MouseButton.PRIMARY) return;
+        PageText layer = displayedTextLayer();
+        Point2D point = layer != null ? pagePoint(event) : null;
+        if (layer == null || !layer.isOverText((float) point.getX(), (float) point.getY(), SELECT_SLOP)) {
+            clearSelection();
+            return;
+        }
+
+        // Selecting, not panning, until the button is released
+        scrollPane.setPannable(false);
+        selecting = true;
+        selectionLayer = layer;
+        int caret = layer.caretAt((float) point.getX(), (float) point.getY());
+        if (event.getClickCount() == 2) {
+            int[] word = layer.wordAt(caret);
+            selectionAnchor = word[0];
+            selectionCaret = word[1];
+        } else {
+            selectionAnchor = caret;
+            selectionCaret = caret;
+        }
+        drawSelection();
+        event.consume();
+    }
+
+    private void extendSelection(MouseEvent event) {
+        if (!selecting) return;
+        Point2D point = pagePoint(event);
+        int caret = selectionLayer.caretAt((float) point.getX(), (float) point.getY());
+        if (caret != selectionCaret) {
+            selectionCaret = caret;
+            drawSelection();
+        }
+        event.consume();
+    }
 
-            g2d.dispose();
+    private void endSelection() {
+        if (!selecting) return;
+        selecting = false;
+        scrollPane.setPannable(true);
+    }
+
+    private void updateCursor(MouseEvent event) {
+        PageText layer = displayedTextLayer();
+        boolean overText = false;
+        if (layer != null) {
+            Point2D point = pagePoint(event);
+            overText = layer.isOverText((float) point.getX(), (float) point.getY(), SELECT_SLOP);
+        }
+        centrePane.setCursor(overText ? Cursor.TEXT : null);
+    }
+
+    private void drawSelection() {
+        if (selectionLayer == null || selectionAnchor == selectionCaret || displayedPage < 0) {
+            highlightLayer.clearSelection();
+            return;
+        }
+        highlightLayer.setSelection(selectionLayer.selectionBoxes(Math.min(selectionAnchor, selectionCaret),
+                Math.max(selectionAnchor, selectionCaret)), pointsToLayout());
+    }
+
+    public void clearSelection() {
+        selectionLayer = null;
+        selectionAnchor = 0;
+        selectionCaret = 0;
+        highlightLayer.clearSelection();
+    }
+
+    // The selected text, or null if nothing is selected
+    public String getSelectedText() {
+        if (selectionLayer == null || selectionAnchor == selectionCaret) return null;
+        return selectionLayer.getText(Math.min(selectionAnchor, selectionCaret), Math.max(selectionAnchor, selectionCaret));
+    }
+
+    /**
+     * Put the selected text on the clipboard. Returns false if nothing is selected.
+     */
+    public boolean copySelection() {
+        String text = getSelectedText();
+        if (text == null || text.isEmpty()) return false;
+        ClipboardContent content = new ClipboardContent();
+        content.putString(text);
+        Clipboard.getSystemClipboard().setContent(content);
+        return true;
+    }
+
+    // Keep the overlay layers the same size as the page image so the StackPane centres them together
+    private void sizeLayers(double[] pageSize) {
+        double layoutHeight = scrollPane.getViewportBounds().getHeight();
+        double layoutWidth = layoutHeight * pageSize[0] / pageSize[1];
+        tileLayer.setMinSize(layoutWidth, layoutHeight);
+        tileLayer.setPrefSize(layoutWidth, layoutHeight);
+        tileLayer.setMaxSize(layoutWidth, layoutHeight);
+        highlightLayer.setSize(layoutWidth, layoutHeight);
+    }
 
-            // Convert to JavaFX Image
-            WritableImage fxImage = SwingFXUtils.toFXImage(pdfImage, null);
+    /**
+     * Redraw search highlights for the displayed page. Only moves shapes; the page
+     * bitmap is left alone, so stepping between hits on one page costs no rendering.
+     */
+    public void updateHighlights() {
+        if (continuous) {
+            continuousView.updateHighlights();
+            return;
+        }
+        if (displayedPage < 0 || renderer == null) {
+            highlightLayer.clear();
+            return;
+        }
+
+        double pointsToLayout = scrollPane.getViewportBounds().getHeight() / pageHeightPoints(displayedPage);
+        SearchResults results = pdfController.getCurrentSearchResults();
+        highlightLayer.setHighlights(results.onPage(displayedPage), pointsToLayout,
+                pdfController.getCurrentSearchResult());
+    }
 
-            // Update ImageView
-            pdfView.setImage(fxImage);
-            pdfView.setFitHeight(scrollPane.getViewportBounds().getHeight());
+    /**
+     * Runs on a render worker thread. PDFBox draws straight into the JavaFX image's
+     * pixels, so there is no BufferedImage-to-Image copy. The caller holds the image
+     * until it passes it to FxImagePool.release().
+     */
+    static WritableImage rasterizePage(DocumentHandles handles, RenderProfile profile, int pageIndex, float dpi)
+            throws IOException {
+        return rasterizePage(handles.getDocument(), handles.getRenderer(), profile, pageIndex, dpi);
+    }
+
+    private static WritableImage rasterizePage(PDDocument document, PDFRenderer renderer, RenderProfile profile,
+                                               int pageIndex, float dpi) throws IOException {
+        PDPage page = document.getPage(pageIndex);
+        PDRectangle cropBox = page.getCropBox();
+        boolean rotated = page.getRotation() % 180 != 0;
+        return TileRenderer.renderPage(renderer, profile, pageIndex, dpi,
+                rotated ? cropBox.getHeight() : cropBox.getWidth(),
+                rotated ? cropBox.getWidth() : cropBox.getHeight());
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Low-DPI first page of a document that has just been loaded, rendered on the
+     * loading thread so it is ready the moment the document is handed to the view.
+     */
+    public static WritableImage rasterizePreview(PDDocument document) throws IOException {
+        if (document.getNumberOfPages() == 0) return null;
+        return rasterizePage(document, new PDFRenderer(document), RenderProfile.FAST, 0, RenderResolution.PREVIEW_DPI);
+    }
+
+    // Start timing an open; the first paint and the first full-quality paint after this are reported
+    public void startFirstPaintTimer(long openStartedNanos) {
+        this.openStartedNanos = openStartedNanos;
+        firstPixelMillis = -1;
+        fullQualityMillis = -1;
+    }
+
+    private void notePainted(boolean fullQuality) {
+        if (openStartedNanos < 0) return;
+
+        long elapsed = (System.nanoTime() - openStartedNanos) / 1_000_000;
+        if (firstPixelMillis < 0) {
+            firstPixelMillis = elapsed;
+            PerformanceMetrics.get().recordFirstPixel(elapsed);
         }
+        if (fullQuality) {
+            fullQualityMillis = elapsed;
+            openStartedNanos = -1;
+            PerformanceMetrics.get().recordFullQuality(firstPixelMillis, elapsed);
+        }
+    }
+
+    public long getTimeToFirstPixelMillis() {
+        return firstPixelMillis;
+    }
+
+    public long getTimeToFullQualityMillis() {
+        return fullQualityMillis;
     }
 
     public void setupRenderer() {
+        setupRenderer(null);
+    }
+
+    /**
+     * @param firstPagePreview page 0 at PREVIEW_DPI from rasterizePreview, shown
+     *                         straight away while the sharp render runs, or null
+     */
+    public void setupRenderer(WritableImage firstPagePreview) {
+        // The workers are shared; a background tab must not cancel the front tab's renders
+        if (active) {
+            renderService.cancelAll();
+        }
+        // The previous document's pages are of no further use
+        pageCache.evictDocument(documentId);
+        documentId = PageImageCache.newDocumentId();
+        continuousView.setDocumentId(documentId);
+        if (active) {
+            pageCache.setActiveDocument(documentId);
+        }
+        if (firstPagePreview != null) {
+            pageCache.put(new PageImageCache.PageKey(documentId, 0, RenderResolution.PREVIEW_DPI), firstPagePreview);
+            imagePool.release(firstPagePreview);
+        }
+        imagePool.show(pdfView, null);
+        displayedPage = -1;
+        showingDraft = false;
+        tileDpi = 0;
+        clearTiles();
+        clearSelection();
+        highlightLayer.clear();
         renderer = pdfController.getRenderer();
+        if (continuous) {
+            continuousView.loadDocument();
+        }
     }
 
     public void displayCurrentPage() {
+        if (continuous) {
+            if (renderer != null) {
+                continuousView.updateHighlights();
+                continuousView.scrollTo(pdfController.getCurrentPage());
+            }
+            return;
+        }
         renderPage();
     }
+
+    public void setContinuous(boolean continuous) {
+        if (this.continuous == continuous) return;
+        this.continuous = continuous;
+        renderService.cancelAll();
+
+        if (continuous) {
+            getChildren().setAll(continuousView);
+            if (renderer != null) {
+                continuousView.loadDocument();
+            }
+        } else {
+            continuousView.clear();
+            getChildren().setAll(scrollPane);
+            displayCurrentPage();
+        }
+    }
+
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    public PageImageCache getPageCache() {
+        return pageCache;
+    }
+
+    public RenderService getRenderService() {
+        return renderService;
+    }
+
+    /**
+     * This view's tab has been brought to the front: its pages now outrank other
+     * documents' in the shared cache, and anything evicted meanwhile is redrawn.
+     */
+    public void activate() {
+        active = true;
+        pageCache.setActiveDocument(documentId);
+        if (renderer != null) {
+            displayCurrentPage();
+        }
+    }
+
+    // Sent to the back; stop rendering for it so the active view has the workers
+    public void deactivate() {
+        active = false;
+        renderService.cancelAll();
+        clearTiles();
+    }
+
+    // The tab is closing: give back everything this document holds in the shared cache
+    public void close() {
+        if (active) {
+            renderService.cancelAll();
+        }
+        clearTiles();
+        imagePool.show(pdfView, null);
+        continuousView.clear();
+        pageCache.evictDocument(documentId);
+        renderer = null;
+    }
 }
\ No newline at end of file
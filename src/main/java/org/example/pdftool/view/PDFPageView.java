@@ -1,21 +1,57 @@
 package org.example.pdftool.view;
 
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.render.FxImagePool;
 
-public class PDFPageView extends ImageView {
-    private int pageIndex;
+import java.util.List;
+
+public class PDFPageView extends StackPane {
+    private final int pageIndex;
+    private final ImageView imageView;
+    private final HighlightOverlay highlightLayer;
     private boolean isRendered;
 
-    public PDFPageView(int pageIndex) {
+    public PDFPageView(int pageIndex, double width, double height) {
         this.pageIndex = pageIndex;
         this.isRendered = false;
-        setPreserveRatio(true);
+
+        imageView = new ImageView();
+        imageView.setPreserveRatio(true);
+        imageView.setFitWidth(width);
+
+        // Placeholder keeps the page's size before anything is rendered
+        setMinSize(width, height);
+        setPrefSize(width, height);
+        setMaxSize(width, height);
+        setStyle("-fx-background-color: white;");
+
+        highlightLayer = new HighlightOverlay();
+        highlightLayer.setSize(width, height);
+        getChildren().addAll(imageView, highlightLayer);
     }
 
     public int getPageIndex() {
         return pageIndex;
     }
 
+    public void setImage(Image image) {
+        FxImagePool.shared().show(imageView, image);
+        setRendered(image != null);
+    }
+
+    public void setHighlights(List<PDFController.PDFSearchResult> hits, double pointsToLayout,
+                              PDFController.PDFSearchResult current) {
+        highlightLayer.setHighlights(hits, pointsToLayout, current);
+    }
+
+    // Drop the bitmap but keep the placeholder's size
+    public void release() {
+        setImage(null);
+    }
+
     public boolean isRendered() {
         return isRendered;
     }
@@ -7,9 +7,14 @@ import javafx.scene.layout.HBox;
 import org.example.pdftool.controller.PDFController;
 import org.example.pdftool.theme.Theme;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PageCounter extends HBox {
     private final Label pageLabel;
     private final PDFController pdfController;
+    // Told whenever the page shown changes, e.g. to keep the thumbnail strip in step
+    private final List<Runnable> pageListeners = new ArrayList<>();
 
     public PageCounter(PDFController pdfController) {
         this.pdfController = pdfController;
@@ -36,5 +41,10 @@ public class PageCounter extends HBox {
         int currentPage = pdfController.getCurrentPage() + 1;
         int totalPages = pdfController.getPageCount();
         pageLabel.setText(String.format("Page %d of %d", currentPage, totalPages));
+        pageListeners.forEach(Runnable::run);
+    }
+
+    public void addPageListener(Runnable listener) {
+        pageListeners.add(listener);
     }
 }
@@ -6,13 +6,19 @@ import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.HBox;
 import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.controller.SearchQuery;
+import org.example.pdftool.controller.SearchResults;
+import org.example.pdftool.controller.SearchTask;
 import org.example.pdftool.theme.Theme;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.regex.PatternSyntaxException;
 
 public class SearchBar extends HBox {
     private final TextField searchField;
@@ -20,7 +26,11 @@ public class SearchBar extends HBox {
     private final PDFDocumentView documentView;
     private PageCounter pageCounter;
     private final Label resultCount;
+    private final ToggleButton regexToggle = new ToggleButton(".*");
+    private final ToggleButton wholeWordToggle = new ToggleButton("W");
+    private final ToggleButton diacriticsToggle = new ToggleButton("ä=a");
     private boolean isVisible = false;
+    private boolean searching = false;
 
     public SearchBar(PDFController pdfController, PDFDocumentView documentView, PageCounter pageCounter) {
         this.pdfController = pdfController;
@@ -30,6 +40,7 @@ public class SearchBar extends HBox {
         // Create search field
         searchField = new TextField();
         searchField.setPromptText("Search...");
+        searchField.setTooltip(new Tooltip("Separate terms with | to find any of them"));
         searchField.setPrefWidth(200);
         searchField.setStyle(String.format("""
                         
@@ -95,6 +106,38 @@ public class SearchBar extends HBox {
         nextButton.setOnMouseEntered(e -> nextButton.setStyle(buttonHoverStyle));
         nextButton.setOnMouseExited(e -> nextButton.setStyle(buttonStyle));
 
+        // Query options; changing one re-runs the current search
+        regexToggle.setTooltip(new Tooltip("Regular expression"));
+        wholeWordToggle.setTooltip(new Tooltip("Whole words only"));
+        diacriticsToggle.setTooltip(new Tooltip("Ignore accents"));
+        String toggleStyle = String.format("""
+                        -fx-text-fill: %s;
+                        -fx-background-color: %s;
+                        -fx-background-radius: 4px;
+                        -fx-font-size: 12px;
+                        -fx-padding: 8px 8px;
+                        -fx-cursor: hand;
+                        """,
+                Theme.TEXT_SECONDARY,
+                Theme.BACKGROUND
+        );
+        String toggleSelectedStyle = toggleStyle + String.format("""
+                        -fx-text-fill: %s;
+                        -fx-background-color: %s;
+                        """,
+                Theme.TEXT_PRIMARY,
+                Theme.PRIMARY
+        );
+        for (ToggleButton option : List.of(regexToggle, wholeWordToggle, diacriticsToggle)) {
+            option.setStyle(toggleStyle);
+            option.selectedProperty().addListener((obs, wasSelected, selected) -> {
+                option.setStyle(selected ? toggleSelectedStyle : toggleStyle);
+                if (!searchField.getText().isEmpty()) {
+                    performSearch();
+                }
+            });
+        }
+
         this.setSpacing(8);
         this.setAlignment(Pos.CENTER_RIGHT);
         this.setPadding(new Insets(8));
@@ -114,63 +157,112 @@ public class SearchBar extends HBox {
         prevButton.setOnAction(event -> showPreviousResult());
         nextButton.setOnAction(event -> showNextResult());
 
-        this.getChildren().addAll(searchField, prevButton, nextButton, resultCount);
+        this.getChildren().addAll(searchField, regexToggle, wholeWordToggle, diacriticsToggle,
+                prevButton, nextButton, resultCount);
     }
 
 
     private void performSearch() {
+        SearchQuery query = new SearchQuery(searchField.getText(), regexToggle.isSelected(),
+                wholeWordToggle.isSelected(), diacriticsToggle.isSelected());
+        searching = true;
+
+        // Results stream in page order; jump to the first one as soon as it arrives
+        SearchTask task;
         try {
-            String searchTerm = searchField.getText();
-            List<PDFController.PDFSearchResult> results = pdfController.searchText(searchTerm);
+            task = pdfController.searchTextAsync(query, Platform::runLater, searchListener());
+        } catch (PatternSyntaxException e) {
+            searching = false;
+            resultCount.setText("Invalid pattern");
+            resultCount.setVisible(true);
+            return;
+        }
 
-            if (results.isEmpty()) {
-                resultCount.setText("No results found");
-                resultCount.setVisible(true);
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(2000);
-                        Platform.runLater(() -> resultCount.setVisible(false));
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }).start();
-            } else {
-                resultCount.setText("1/" + results.size());
-                resultCount.setVisible(true);
-                showNextResult();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            resultCount.setText("No results found");
+        if (task == null) {
+            searching = false;
+            showNoResults();
+        } else {
+            resultCount.setText("0/…");
             resultCount.setVisible(true);
         }
     }
 
+    private SearchTask.SearchListener searchListener() {
+        return new SearchTask.SearchListener() {
+            @Override
+            public void onResults(List<PDFController.PDFSearchResult> newResults, int pagesSearched, int pageCount) {
+                resultCount.setVisible(true);
+                if (pdfController.getCurrentSearchIndex() < 0) {
+                    showNextResult();
+                } else {
+                    updateResultCount();
+                    documentView.updateHighlights();
+                }
+            }
+
+            @Override
+            public void onComplete(int totalResults) {
+                searching = false;
+                if (totalResults == 0) {
+                    showNoResults();
+                } else {
+                    updateResultCount();
+                }
+            }
+
+            @Override
+            public void onError(IOException e) {
+                searching = false;
+                e.printStackTrace();
+                showNoResults();
+            }
+        };
+    }
+
+    private void showNoResults() {
+        resultCount.setText("No results found");
+        resultCount.setVisible(true);
+        new Thread(() -> {
+            try {
+                Thread.sleep(2000);
+                Platform.runLater(() -> resultCount.setVisible(false));
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }).start();
+    }
+
     private void showNextResult() {
         PDFController.PDFSearchResult result = pdfController.getNextSearchResult();
         if (result != null) {
-            pdfController.setCurrentPage(result.pageNumber());
-            updateResultCount();
-            documentView.displayCurrentPage();
-            pageCounter.updateLabel();
+            showResult(result);
         }
     }
 
     private void showPreviousResult() {
         PDFController.PDFSearchResult result = pdfController.getPreviousSearchResult();
         if (result != null) {
-            pdfController.setCurrentPage(result.pageNumber());
-            updateResultCount();
-            documentView.displayCurrentPage();
-            pageCounter.updateLabel();
+            showResult(result);
+        }
+    }
+
+    // Moving to another hit on the same page only redraws the highlight overlay
+    private void showResult(PDFController.PDFSearchResult result) {
+        updateResultCount();
+        if (result.pageNumber() == pdfController.getCurrentPage()) {
+            documentView.updateHighlights();
+            return;
         }
+        pdfController.setCurrentPage(result.pageNumber());
+        documentView.displayCurrentPage();
+        pageCounter.updateLabel();
     }
 
     private void updateResultCount() {
-        List<PDFController.PDFSearchResult> results = pdfController.getCurrentSearchResults();
+        SearchResults results = pdfController.getCurrentSearchResults();
         if (!results.isEmpty()) {
             int current = pdfController.getCurrentSearchIndex() + 1;
-            resultCount.setText(current + "/" + results.size());
+            resultCount.setText(current + "/" + results.size() + (searching ? "…" : ""));
         }
     }
 
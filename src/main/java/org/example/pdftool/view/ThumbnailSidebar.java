@@ -0,0 +1,161 @@
+package org.example.pdftool.view;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Skin;
+import javafx.scene.control.skin.ListViewSkin;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.example.pdftool.controller.PDFController;
+import org.example.pdftool.render.ThumbnailGenerator;
+import org.example.pdftool.theme.Theme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strip of page thumbnails down the side of the window. Like ContinuousPageView it
+ * only has cells for the thumbnails on screen; the images come from a
+ * ThumbnailGenerator, which renders in the background and caches them on disk.
+ */
+public class ThumbnailSidebar extends ListView<Integer> {
+    private final PDFController pdfController;
+    private final PDFDocumentView documentView;
+    private final PageCounter pageCounter;
+    private final ThumbnailGenerator generator;
+    private VirtualFlow<?> flow;
+    private double[] thumbnailHeights = new double[0];
+
+    private class ThumbnailCell extends ListCell<Integer> {
+        private final ImageView imageView = new ImageView();
+        private final StackPane frame = new StackPane(imageView);
+        private final Label pageLabel = new Label();
+        private final VBox content = new VBox(4, frame, pageLabel);
+
+        ThumbnailCell() {
+            imageView.setFitWidth(ThumbnailGenerator.THUMBNAIL_WIDTH);
+            imageView.setPreserveRatio(true);
+            frame.setStyle("-fx-background-color: white;");
+            pageLabel.setStyle("-fx-text-fill: " + Theme.TEXT_SECONDARY + "; -fx-font-size: 11px;");
+            content.setAlignment(Pos.CENTER);
+
+            setOnMouseClicked(event -> {
+                if (getItem() != null) {
+                    showPage(getItem());
+                }
+            });
+        }
+
+        @Override
+        protected void updateItem(Integer pageIndex, boolean empty) {
+            super.updateItem(pageIndex, empty);
+            imageView.setImage(null);
+
+            if (empty || pageIndex == null || pageIndex >= thumbnailHeights.length) {
+                setGraphic(null);
+                return;
+            }
+
+            // Placeholder keeps the thumbnail's size until the image arrives
+            double height = thumbnailHeights[pageIndex];
+            frame.setMinSize(ThumbnailGenerator.THUMBNAIL_WIDTH, height);
+            frame.setMaxSize(ThumbnailGenerator.THUMBNAIL_WIDTH, height);
+            pageLabel.setText(String.valueOf(pageIndex + 1));
+            setGraphic(content);
+
+            generator.request(pageIndex, thumbnail -> {
+                if (pageIndex.equals(getItem())) {
+                    imageView.setImage(thumbnail);
+                }
+            });
+        }
+    }
+
+    public ThumbnailSidebar(PDFController pdfController, PDFDocumentView documentView, PageCounter pageCounter,
+                            ThumbnailGenerator generator) {
+        this.pdfController = pdfController;
+        this.documentView = documentView;
+        this.pageCounter = pageCounter;
+        this.generator = generator;
+
+        setCellFactory(listView -> {
+            ThumbnailCell cell = new ThumbnailCell();
+            cell.setAlignment(Pos.CENTER);
+            return cell;
+        });
+        setStyle("-fx-background: " + Theme.SURFACE + "; -fx-background-color: " + Theme.SURFACE + ";");
+        setPrefWidth(ThumbnailGenerator.THUMBNAIL_WIDTH + 48);
+        setFocusTraversable(false);
+
+        pageCounter.addPageListener(this::followCurrentPage);
+    }
+
+    @Override
+    protected Skin<?> createDefaultSkin() {
+        return new ListViewSkin<>(this) {
+            {
+                flow = getVirtualFlow();
+            }
+        };
+    }
+
+    /**
+     * Size a placeholder for every page and start generating thumbnails.
+     */
+    public void loadDocument() {
+        int pageCount = pdfController.getPageCount();
+        thumbnailHeights = new double[pageCount];
+
+        int pageIndex = 0;
+        for (PDPage page : pdfController.getDocument().getPages()) {
+            PDRectangle cropBox = page.getCropBox();
+            boolean rotated = page.getRotation() % 180 != 0;
+            double width = rotated ? cropBox.getHeight() : cropBox.getWidth();
+            double height = rotated ? cropBox.getWidth() : cropBox.getHeight();
+            thumbnailHeights[pageIndex++] = ThumbnailGenerator.THUMBNAIL_WIDTH * height / width;
+        }
+
+        generator.open(pdfController.getDocumentHandles(), pageCount);
+        List<Integer> pages = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            pages.add(i);
+        }
+        getItems().setAll(pages);
+        followCurrentPage();
+    }
+
+    public void clear() {
+        if (!getItems().isEmpty()) {
+            generator.close(pdfController.getDocumentHandles());
+        }
+        getItems().clear();
+        thumbnailHeights = new double[0];
+    }
+
+    private void showPage(int pageIndex) {
+        pdfController.setCurrentPage(pageIndex);
+        documentView.displayCurrentPage();
+        pageCounter.updateLabel();
+    }
+
+    // Select the current page's thumbnail, scrolling only if it is out of view
+    private void followCurrentPage() {
+        if (getItems().isEmpty()) return;
+
+        int pageIndex = pdfController.getCurrentPage();
+        getSelectionModel().select(pageIndex);
+
+        IndexedCell<?> first = flow != null ? flow.getFirstVisibleCell() : null;
+        IndexedCell<?> last = flow != null ? flow.getLastVisibleCell() : null;
+        if (first == null || last == null || pageIndex < first.getIndex() || pageIndex > last.getIndex()) {
+            scrollTo(pageIndex);
+        }
+    }
+}